@@ -0,0 +1,85 @@
+#!/usr/bin/env bash
+#
+# Checks cluster-wide cache invalidation with several instances sharing the local database:
+# starts INSTANCES copies of the service with customer.cache.invalidation.enabled, caches a customer on every
+# instance, updates and then deletes it through the first one, and reports how long each other instance took to
+# serve the change.
+#
+# Usage: scripts/invalidation-check.sh
+# Requires the database from docker-compose.yml to be running.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+INSTANCES="${INSTANCES:-3}"
+FIRST_PORT="${FIRST_PORT:-8081}"
+TIMEOUT_MS="${TIMEOUT_MS:-5000}"
+JAR="target/customer-0.0.1-SNAPSHOT.jar"
+PIDS=()
+
+cleanup() {
+    for pid in "${PIDS[@]}"; do
+        kill "${pid}" 2> /dev/null || true
+    done
+}
+trap cleanup EXIT
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# Polls the given URL until the response status and body satisfy the condition, prints the elapsed milliseconds
+await_change() {
+    local url="$1" expected_status="$2" expected_body="$3" start status
+
+    start=$(now_ms)
+    while true; do
+        status=$(curl -s -o /tmp/invalidation-check.body -w '%{http_code}' "${url}")
+        if [ "${status}" = "${expected_status}" ] && grep -q "${expected_body}" /tmp/invalidation-check.body; then
+            echo $(( $(now_ms) - start ))
+            return
+        fi
+        if [ $(( $(now_ms) - start )) -gt "${TIMEOUT_MS}" ]; then
+            echo "timeout"
+            return
+        fi
+        sleep 0.005
+    done
+}
+
+mvn -q -DskipTests package
+
+for ((i = 0; i < INSTANCES; i++)); do
+    port=$((FIRST_PORT + i))
+    java -jar "${JAR}" --server.port="${port}" --customer.cache.invalidation.enabled=true \
+        --customer.admission.enabled=false > "target/instance-${port}.log" 2>&1 &
+    PIDS+=($!)
+done
+
+for ((i = 0; i < INSTANCES; i++)); do
+    until curl -s -o /dev/null "http://localhost:$((FIRST_PORT + i))/actuator/health"; do
+        sleep 0.1
+    done
+done
+
+email="invalidation-$(date +%s%N)@example.com"
+id=$(curl -s -X POST "http://localhost:${FIRST_PORT}/customer" -H 'Content-Type: application/json' \
+    -d "{\"firstName\":\"Before\",\"lastName\":\"Update\",\"email\":\"${email}\"}" | tr -d '"')
+
+for ((i = 0; i < INSTANCES; i++)); do
+    curl -s -o /dev/null "http://localhost:$((FIRST_PORT + i))/customer/${id}"
+done
+
+curl -s -o /dev/null -X PUT "http://localhost:${FIRST_PORT}/customer" -H 'Content-Type: application/json' \
+    -d "{\"id\":\"${id}\",\"firstName\":\"After\",\"lastName\":\"Update\",\"email\":\"${email}\"}"
+
+for ((i = 1; i < INSTANCES; i++)); do
+    echo "port $((FIRST_PORT + i)): update visible after $(await_change "http://localhost:$((FIRST_PORT + i))/customer/${id}" 302 After) ms"
+done
+
+curl -s -o /dev/null -X DELETE "http://localhost:${FIRST_PORT}/customer/${id}"
+
+for ((i = 1; i < INSTANCES; i++)); do
+    echo "port $((FIRST_PORT + i)): delete visible after $(await_change "http://localhost:$((FIRST_PORT + i))/customer/${id}" 404 customerId) ms"
+done
@@ -0,0 +1,119 @@
+-- One-off migration of T_CUSTOMER to 16 hash partitions on CUSTOMER_ID, required by the "partitioned" Spring profile.
+-- Run it with the application stopped, before the first start with that profile:
+--
+--   psql -v ON_ERROR_STOP=1 -h localhost -U postgres -d customer -f scripts/partition-customer-table.sql
+--
+-- The script runs in a single transaction under an advisory lock: concurrent runs wait for each other, and a failure
+-- leaves the database unchanged. It is idempotent; once T_CUSTOMER is partitioned, running it again only recreates
+-- missing partitions, the e-mail registry and its trigger. An existing unpartitioned table is renamed to
+-- T_CUSTOMER_UNPARTITIONED, copied with all its columns, and kept until it is dropped manually.
+
+\set ON_ERROR_STOP on
+
+BEGIN;
+
+SELECT pg_advisory_xact_lock(hashtext('partition-customer-table'));
+
+SELECT coalesce((SELECT relkind = 'r' FROM pg_class WHERE oid = to_regclass('t_customer')), false) AS migrate \gset
+
+\if :migrate
+-- Partitioned, e-mails are unique across the table; abort before changing anything if existing rows are not
+DO $$
+DECLARE
+    duplicates BIGINT;
+BEGIN
+    SELECT count(*) INTO duplicates
+    FROM (SELECT EMAIL FROM T_CUSTOMER WHERE EMAIL IS NOT NULL GROUP BY EMAIL HAVING count(*) > 1) duplicate;
+
+    IF duplicates > 0 THEN
+        RAISE EXCEPTION '% e-mail addresses are shared by more than one customer; resolve them and run again', duplicates
+            USING HINT = 'SELECT EMAIL, count(*) FROM T_CUSTOMER GROUP BY EMAIL HAVING count(*) > 1';
+    END IF;
+END $$;
+
+ALTER TABLE T_CUSTOMER RENAME TO T_CUSTOMER_UNPARTITIONED;
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 't_customer_pkey') THEN
+        ALTER TABLE T_CUSTOMER_UNPARTITIONED RENAME CONSTRAINT t_customer_pkey TO t_customer_unpartitioned_pkey;
+    END IF;
+END $$;
+
+ALTER INDEX IF EXISTS T_CUSTOMER_UPDATED_AT_IDX RENAME TO T_CUSTOMER_UNPARTITIONED_UPDATED_AT_IDX;
+
+-- Columns an older schema may lack, so that the copy below can take every column
+ALTER TABLE T_CUSTOMER_UNPARTITIONED ADD COLUMN IF NOT EXISTS UPDATED_AT TIMESTAMP(6) WITH TIME ZONE;
+ALTER TABLE T_CUSTOMER_UNPARTITIONED ADD COLUMN IF NOT EXISTS VERSION BIGINT NOT NULL DEFAULT 0;
+\endif
+
+CREATE TABLE IF NOT EXISTS T_CUSTOMER (
+    CUSTOMER_ID UUID         NOT NULL,
+    FIRST_NAME  VARCHAR(255),
+    LAST_NAME   VARCHAR(255),
+    EMAIL       VARCHAR(255),
+    UPDATED_AT  TIMESTAMP(6) WITH TIME ZONE,
+    VERSION     BIGINT       NOT NULL DEFAULT 0,
+    CONSTRAINT T_CUSTOMER_PKEY PRIMARY KEY (CUSTOMER_ID)
+) PARTITION BY HASH (CUSTOMER_ID);
+
+-- Columns added after the table was first partitioned
+ALTER TABLE T_CUSTOMER ADD COLUMN IF NOT EXISTS UPDATED_AT TIMESTAMP(6) WITH TIME ZONE;
+ALTER TABLE T_CUSTOMER ADD COLUMN IF NOT EXISTS VERSION BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS T_CUSTOMER_UPDATED_AT_IDX ON T_CUSTOMER (UPDATED_AT, CUSTOMER_ID);
+
+DO $$
+BEGIN
+    FOR remainder IN 0..15 LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS T_CUSTOMER_P%s PARTITION OF T_CUSTOMER '
+                           || 'FOR VALUES WITH (MODULUS 16, REMAINDER %s)', lpad(remainder::text, 2, '0'), remainder);
+    END LOOP;
+END $$;
+
+-- A unique index on a partitioned table must contain the partition key, so e-mail uniqueness across all
+-- partitions is enforced by a registry table keyed by e-mail and maintained by a trigger.
+CREATE TABLE IF NOT EXISTS T_CUSTOMER_EMAIL (
+    EMAIL       VARCHAR(255) NOT NULL,
+    CUSTOMER_ID UUID         NOT NULL,
+    CONSTRAINT T_CUSTOMER_EMAIL_PKEY PRIMARY KEY (EMAIL)
+);
+
+CREATE OR REPLACE FUNCTION T_CUSTOMER_EMAIL_REGISTRY() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        DELETE FROM T_CUSTOMER_EMAIL WHERE EMAIL = OLD.EMAIL AND CUSTOMER_ID = OLD.CUSTOMER_ID;
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'UPDATE' THEN
+        IF OLD.EMAIL IS NOT DISTINCT FROM NEW.EMAIL THEN
+            RETURN NULL;
+        END IF;
+
+        DELETE FROM T_CUSTOMER_EMAIL WHERE EMAIL = OLD.EMAIL AND CUSTOMER_ID = OLD.CUSTOMER_ID;
+    END IF;
+
+    IF NEW.EMAIL IS NOT NULL THEN
+        INSERT INTO T_CUSTOMER_EMAIL (EMAIL, CUSTOMER_ID) VALUES (NEW.EMAIL, NEW.CUSTOMER_ID);
+    END IF;
+
+    RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+\if :migrate
+-- Copied before the trigger exists, so the registry is filled in one statement rather than row by row
+INSERT INTO T_CUSTOMER (CUSTOMER_ID, FIRST_NAME, LAST_NAME, EMAIL, UPDATED_AT, VERSION)
+SELECT CUSTOMER_ID, FIRST_NAME, LAST_NAME, EMAIL, UPDATED_AT, VERSION FROM T_CUSTOMER_UNPARTITIONED;
+
+INSERT INTO T_CUSTOMER_EMAIL (EMAIL, CUSTOMER_ID)
+SELECT EMAIL, CUSTOMER_ID FROM T_CUSTOMER WHERE EMAIL IS NOT NULL;
+\endif
+
+DROP TRIGGER IF EXISTS T_CUSTOMER_EMAIL_REGISTRY ON T_CUSTOMER;
+
+CREATE TRIGGER T_CUSTOMER_EMAIL_REGISTRY
+    AFTER INSERT OR UPDATE OR DELETE ON T_CUSTOMER
+    FOR EACH ROW EXECUTE FUNCTION T_CUSTOMER_EMAIL_REGISTRY();
+
+COMMIT;
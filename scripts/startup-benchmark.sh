@@ -0,0 +1,84 @@
+#!/usr/bin/env bash
+#
+# Measures time-to-first-request and resident set size (RSS) of the customer service in each startup mode:
+#   jar     - the regular executable jar
+#   aot-cds - AOT-processed application running from the extracted jar with the trained AppCDS archive
+#   native  - GraalVM native image (requires GRAALVM_HOME / native-image on the PATH)
+#
+# Usage: scripts/startup-benchmark.sh [jar] [aot-cds] [native]   (all modes when no argument is given)
+# Requires the database from docker-compose.yml to be running.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+PORT="${PORT:-8080}"
+RUNS="${RUNS:-5}"
+ARTIFACT="customer-0.0.1-SNAPSHOT"
+PROBE_URL="http://localhost:${PORT}/customer/00000000-0000-0000-0000-000000000000"
+MODES=("$@")
+
+if [ ${#MODES[@]} -eq 0 ]; then
+    MODES=(jar aot-cds native)
+fi
+
+# Starts the given command, waits for the first HTTP response and prints "<milliseconds> <rss KB>"
+measure_once() {
+    local start end pid rss
+
+    start=$(date +%s%N)
+    "$@" --server.port="${PORT}" > /dev/null 2>&1 &
+    pid=$!
+
+    until curl -s -o /dev/null "${PROBE_URL}"; do
+        if ! kill -0 "${pid}" 2> /dev/null; then
+            echo "Application exited before serving a request" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+
+    end=$(date +%s%N)
+    rss=$(awk '/VmRSS/ { print $2 }' "/proc/${pid}/status")
+
+    kill "${pid}"
+    wait "${pid}" 2> /dev/null || true
+
+    echo "$(( (end - start) / 1000000 )) ${rss}"
+}
+
+measure() {
+    local mode=$1 total_ms=0 total_rss=0 result
+    shift
+
+    for _ in $(seq "${RUNS}"); do
+        result=$(measure_once "$@")
+        total_ms=$(( total_ms + ${result% *} ))
+        total_rss=$(( total_rss + ${result#* } ))
+    done
+
+    printf "%-8s time-to-first-request: %6d ms   rss: %8d KB\n" \
+        "${mode}" $(( total_ms / RUNS )) $(( total_rss / RUNS ))
+}
+
+for mode in "${MODES[@]}"; do
+    case "${mode}" in
+        jar)
+            mvn -B -q -DskipTests package
+            measure jar java -jar "target/${ARTIFACT}.jar"
+            ;;
+        aot-cds)
+            mvn -B -q -DskipTests -Paot-cds package
+            measure aot-cds java -XX:SharedArchiveFile=target/extracted/customer.jsa -Dspring.aot.enabled=true \
+                -jar "target/extracted/${ARTIFACT}.jar"
+            ;;
+        native)
+            mvn -B -q -DskipTests -Pnative native:compile
+            measure native target/customer
+            ;;
+        *)
+            echo "Unknown mode: ${mode}" >&2
+            exit 1
+            ;;
+    esac
+done
@@ -0,0 +1,209 @@
+package com.rent.customer.benchmark;
+
+import com.rent.customer.CustomerApplication;
+import com.rent.customer.model.Customer;
+import com.rent.customer.model.dto.CustomerDTO;
+import com.rent.customer.repository.CustomerBulkRepository;
+import com.rent.customer.repository.CustomerRepository;
+import com.rent.customer.service.CustomerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the data-access layer on driver, Hibernate and HikariCP defaults (`baseline`) with the
+ * `customer.data-access.*` profile of `application.yml` (`tuned`), by running the application without its web
+ * layer against the database given by `-Dbenchmark.datasource.url/username/password`:
+ * <ul>
+ *     <li>`findById` and `update` through `CustomerService`, from 16 threads and from one (statement preparation,
+ *     pool sizing);</li>
+ *     <li>`saveAll` of 100 customers through Hibernate, and `insertIgnoringExisting` of 500 through JDBC
+ *     (batched and rewritten inserts);</li>
+ *     <li>a page of 100 customers loaded in a read-only and in a read-write transaction (snapshots, dirty checking
+ *     and flush on commit), in both profiles.</li>
+ * </ul>
+ * `-Dbenchmark.rows` customers (100 000 by default) under `@seed.benchmark` are added to `T_CUSTOMER` once and
+ * reused; customers inserted by the benchmarks are deleted after each iteration. Use a scratch database. The
+ * benchmark has not been run yet, so no results are published.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DataAccessBenchmark {
+
+    private static final String SEED_DOMAIN = "@seed.benchmark";
+    private static final String INSERT_DOMAIN = "@insert.benchmark";
+    private static final int PAGE_SIZE = 100;
+
+    // Driver, Hibernate and HikariCP defaults; read-only transactions are compared by the loadPage benchmarks
+    private static final String[] BASELINE = {
+            "--customer.data-access.pool-size=10",
+            "--customer.data-access.prepare-threshold=5",
+            "--customer.data-access.statement-cache-queries=256",
+            "--customer.data-access.statement-cache-size-mib=5",
+            "--customer.data-access.rewrite-batched-inserts=false",
+            "--customer.data-access.batch-size=0",
+            "--spring.jpa.properties.hibernate.order_inserts=false",
+            "--spring.jpa.properties.hibernate.order_updates=false"
+    };
+
+    @Param({"baseline", "tuned"})
+    private String profile;
+
+    private final int rows = Integer.getInteger("benchmark.rows", 100_000);
+
+    private ConfigurableApplicationContext context;
+    private CustomerService customerService;
+    private CustomerRepository repository;
+    private CustomerBulkRepository bulkRepository;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate readWriteTransaction;
+    private List<UUID> sampleIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + System.getProperty("benchmark.datasource.url",
+                        "jdbc:postgresql://localhost:5432/customer"),
+                "--spring.datasource.username=" + System.getProperty("benchmark.datasource.username", "postgres"),
+                "--spring.datasource.password=" + System.getProperty("benchmark.datasource.password", "password"),
+                "--customer.cache.warm-up.size=0"));
+
+        if ("baseline".equals(profile)) {
+            args.addAll(List.of(BASELINE));
+        }
+
+        context = new SpringApplicationBuilder(CustomerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(new String[0]));
+
+        customerService = context.getBean(CustomerService.class);
+        repository = context.getBean(CustomerRepository.class);
+        bulkRepository = context.getBean(CustomerBulkRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        readWriteTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        if (!isSeeded()) {
+            seed();
+        }
+
+        sampleIds = jdbcTemplate.queryForList("SELECT CUSTOMER_ID FROM T_CUSTOMER WHERE EMAIL LIKE ? LIMIT 10000",
+                UUID.class, "%" + SEED_DOMAIN);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteInserted() {
+        jdbcTemplate.update("DELETE FROM T_CUSTOMER WHERE EMAIL LIKE ?", "%" + INSERT_DOMAIN);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public CustomerDTO findById() {
+        return customerService.findById(randomId());
+    }
+
+    @Benchmark
+    public void update() {
+        final CustomerDTO customer = customerService.findById(randomId());
+
+        customer.setFirstName("First" + ThreadLocalRandom.current().nextInt());
+        customerService.update(customer);
+    }
+
+    @Benchmark
+    public List<Customer> saveAll() {
+        return readWriteTransaction.execute(status -> repository.saveAll(newCustomers(100, false)));
+    }
+
+    @Benchmark
+    public void insertIgnoringExisting() {
+        final List<Customer> customers = newCustomers(500, true);
+
+        readWriteTransaction.executeWithoutResult(status -> bulkRepository.insertIgnoringExisting(customers));
+    }
+
+    @Benchmark
+    public int loadPageReadOnly() {
+        return readOnlyTransaction.execute(status -> loadPage());
+    }
+
+    @Benchmark
+    public int loadPageReadWrite() {
+        return readWriteTransaction.execute(status -> loadPage());
+    }
+
+    private int loadPage() {
+        final int page = ThreadLocalRandom.current().nextInt(Math.max(1, rows / PAGE_SIZE / 10));
+
+        return repository.findAll(PageRequest.of(page, PAGE_SIZE)).getNumberOfElements();
+    }
+
+    private List<Customer> newCustomers(int count, boolean assignIds) {
+        final List<Customer> customers = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            final Customer customer = new Customer();
+            final UUID id = UUID.randomUUID();
+
+            customer.setId(assignIds ? id : null);
+            customer.setFirstName("First");
+            customer.setLastName("Last");
+            customer.setEmail(id + INSERT_DOMAIN);
+            customers.add(customer);
+        }
+
+        return customers;
+    }
+
+    private UUID randomId() {
+        return sampleIds.get(ThreadLocalRandom.current().nextInt(sampleIds.size()));
+    }
+
+    private boolean isSeeded() {
+        return Long.valueOf(rows).equals(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM T_CUSTOMER WHERE EMAIL LIKE ?", Long.class, "%" + SEED_DOMAIN));
+    }
+
+    private void seed() {
+        jdbcTemplate.update("DELETE FROM T_CUSTOMER WHERE EMAIL LIKE ?", "%" + SEED_DOMAIN);
+        jdbcTemplate.execute("INSERT INTO T_CUSTOMER (CUSTOMER_ID, FIRST_NAME, LAST_NAME, EMAIL, UPDATED_AT, VERSION) "
+                + "SELECT gen_random_uuid(), 'First' || g, 'Last' || g, 'customer' || g || '" + SEED_DOMAIN + "', "
+                + "now(), 0 FROM generate_series(1, " + rows + ") g");
+        jdbcTemplate.execute("ANALYZE T_CUSTOMER");
+    }
+}
@@ -0,0 +1,104 @@
+package com.rent.customer.benchmark;
+
+import com.rent.customer.exception.CustomerNotFoundException;
+import com.rent.customer.handler.GlobalExceptionHandler;
+import com.rent.customer.repository.CustomerRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures the throughput of answering a lookup of an unknown customer id with a 404.
+ * Both benchmarks run the same lookup against an empty repository. `current` throws the shipped
+ * `CustomerNotFoundException` and answers with the shipped `GlobalExceptionHandler.handleCustomerNotFound`. `legacy`
+ * throws and handles copies of the exception and handler before the change: a stack-capturing exception whose
+ * message is formatted eagerly, answered with that message as a plain body. `depth` adds frames below the throw,
+ * since a request served by Tomcat and Spring MVC is deep.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotFoundPathBenchmark {
+
+    @Param({"10", "120"})
+    private int depth;
+
+    private final UUID customerId = UUID.randomUUID();
+    private final CustomerRepository repository = emptyRepository();
+    private final GlobalExceptionHandler exceptionHandler = new GlobalExceptionHandler();
+
+    @Benchmark
+    public ResponseEntity<?> legacy() {
+        return atDepth(depth, () -> {
+            try {
+                repository.findById(customerId).orElseThrow(() -> new LegacyCustomerNotFoundException(customerId));
+                throw new IllegalStateException("Customer must not exist");
+            } catch (LegacyCustomerNotFoundException exception) {
+                return handleLegacyCustomerNotFound(exception);
+            }
+        });
+    }
+
+    @Benchmark
+    public ResponseEntity<?> current() {
+        return atDepth(depth, () -> {
+            try {
+                repository.findById(customerId).orElseThrow(() -> new CustomerNotFoundException(customerId));
+                throw new IllegalStateException("Customer must not exist");
+            } catch (CustomerNotFoundException exception) {
+                return exceptionHandler.handleCustomerNotFound(exception);
+            }
+        });
+    }
+
+    private static <T> T atDepth(int depth, Supplier<T> action) {
+        return depth == 0 ? action.get() : atDepth(depth - 1, action);
+    }
+
+    private static CustomerRepository emptyRepository() {
+        return (CustomerRepository) Proxy.newProxyInstance(CustomerRepository.class.getClassLoader(),
+                new Class<?>[]{CustomerRepository.class},
+                (proxy, method, args) -> {
+                    if ("findById".equals(method.getName())) {
+                        return Optional.empty();
+                    }
+
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Copy of `GlobalExceptionHandler.handleCustomerNotFound` before the change.
+     */
+    private static ResponseEntity<String> handleLegacyCustomerNotFound(LegacyCustomerNotFoundException exception) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(exception.getMessage());
+    }
+
+    /**
+     * Copy of `CustomerNotFoundException` before it became stackless.
+     */
+    private static class LegacyCustomerNotFoundException extends RuntimeException {
+        private LegacyCustomerNotFoundException(UUID id) {
+            super(String.format("Customer with id %s not found", id));
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.rent.customer.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares an unpartitioned customer table with the 16-way hash-partitioned layout of
+ * `scripts/partition-customer-table.sql` on a seeded dataset of `-Dbenchmark.rows` customers (10 million by default):
+ * lookups by id (pruned to one partition), lookups by e-mail (unique index vs. e-mail registry), single-row inserts
+ * (unique index vs. registry trigger) and a full scan (one statement vs. partitions in parallel). Runs against the
+ * database given by `-Dbenchmark.datasource.url/username/password`; both are passed through `-Djmh.jvmArgs`. The
+ * `BENCH_CUSTOMER_*` tables are seeded once and reused while their row count matches.
+ * <p>
+ * The partitioned table mirrors the migration: the same columns and `UPDATED_AT` index, and an e-mail registry kept
+ * by a copy of its trigger. The parallel scan reads the 16 partitions on `-Dbenchmark.parallelism` threads, `4` by
+ * default like `customer.partitioning.parallelism`. It differs from the application in two ways: statements are sent
+ * through plain JDBC rather than Hibernate, and the unpartitioned table gets a unique e-mail index, which
+ * `T_CUSTOMER` lacks, so that e-mail lookups compare an index with the registry rather than with a sequential scan.
+ * The benchmark has not been run yet, so no results are published.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PartitioningBenchmark {
+
+    private static final int PARTITIONS = 16;
+    private static final String PLAIN = "BENCH_CUSTOMER_PLAIN";
+    private static final String PARTITIONED = "BENCH_CUSTOMER_PARTITIONED";
+    private static final String EMAIL_REGISTRY = "BENCH_CUSTOMER_EMAIL";
+    private static final String REGISTRY_TRIGGER = "BENCH_CUSTOMER_EMAIL_REGISTRY";
+    private static final String COLUMNS = "(CUSTOMER_ID UUID PRIMARY KEY, FIRST_NAME VARCHAR(255), "
+            + "LAST_NAME VARCHAR(255), EMAIL VARCHAR(255)%s, UPDATED_AT TIMESTAMP(6) WITH TIME ZONE, "
+            + "VERSION BIGINT NOT NULL DEFAULT 0)";
+    private static final String INSERT = "INSERT INTO %s (CUSTOMER_ID, FIRST_NAME, LAST_NAME, EMAIL, UPDATED_AT) "
+            + "VALUES (?, 'First', 'Last', ?, now())";
+
+    private final long rows = Long.getLong("benchmark.rows", 10_000_000L);
+    private final int parallelism = Integer.getInteger("benchmark.parallelism", 4);
+    private final Queue<UUID> insertedIds = new ConcurrentLinkedQueue<>();
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private ExecutorService executor;
+    private List<String> partitions;
+    private List<UUID> sampleIds;
+    private List<String> sampleEmails;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getProperty("benchmark.datasource.url", "jdbc:postgresql://localhost:5432/customer"));
+        dataSource.setUsername(System.getProperty("benchmark.datasource.username", "postgres"));
+        dataSource.setPassword(System.getProperty("benchmark.datasource.password", "password"));
+        dataSource.setMaximumPoolSize(parallelism + 2);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        executor = Executors.newFixedThreadPool(parallelism);
+
+        if (!isSeeded()) {
+            seed();
+        }
+
+        partitions = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = '" + PARTITIONED + "'::regclass", String.class);
+        sampleIds = jdbcTemplate.queryForList("SELECT CUSTOMER_ID FROM " + PLAIN + " TABLESAMPLE SYSTEM (1) LIMIT 10000",
+                UUID.class);
+        sampleEmails = jdbcTemplate.queryForList("SELECT EMAIL FROM " + PLAIN + " TABLESAMPLE SYSTEM (1) LIMIT 10000",
+                String.class);
+    }
+
+    // Keeps the tables at the seeded size, so that every iteration inserts into the same indexes
+    @TearDown(Level.Iteration)
+    public void deleteInserted() {
+        final List<Object[]> ids = new ArrayList<>();
+
+        for (UUID customerId; (customerId = insertedIds.poll()) != null; ) {
+            ids.add(new Object[]{customerId});
+        }
+
+        jdbcTemplate.batchUpdate("DELETE FROM " + PLAIN + " WHERE CUSTOMER_ID = ?", ids);
+        jdbcTemplate.batchUpdate("DELETE FROM " + PARTITIONED + " WHERE CUSTOMER_ID = ?", ids);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        dataSource.close();
+    }
+
+    @Benchmark
+    public String plainFindById() {
+        return findEmailById(PLAIN, randomId());
+    }
+
+    @Benchmark
+    public String partitionedFindById() {
+        return findEmailById(PARTITIONED, randomId());
+    }
+
+    @Benchmark
+    public UUID plainFindByEmail() {
+        return jdbcTemplate.queryForObject("SELECT CUSTOMER_ID FROM " + PLAIN + " WHERE EMAIL = ?", UUID.class,
+                randomEmail());
+    }
+
+    @Benchmark
+    public String partitionedFindByEmail() {
+        final UUID customerId = jdbcTemplate.queryForObject(
+                "SELECT CUSTOMER_ID FROM " + EMAIL_REGISTRY + " WHERE EMAIL = ?", UUID.class, randomEmail());
+
+        return findEmailById(PARTITIONED, customerId);
+    }
+
+    @Benchmark
+    public int plainInsert() {
+        return insert(PLAIN);
+    }
+
+    @Benchmark
+    public int partitionedInsert() {
+        return insert(PARTITIONED);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long plainScan() {
+        return scan(PLAIN);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long partitionedParallelScan() throws Exception {
+        final List<Future<Long>> futures = new ArrayList<>(partitions.size());
+
+        for (String partition : partitions) {
+            futures.add(executor.submit(() -> scan(partition)));
+        }
+
+        long total = 0;
+
+        for (Future<Long> future : futures) {
+            total += future.get();
+        }
+
+        return total;
+    }
+
+    private String findEmailById(String table, UUID customerId) {
+        return jdbcTemplate.queryForObject("SELECT EMAIL FROM " + table + " WHERE CUSTOMER_ID = ?", String.class,
+                customerId);
+    }
+
+    private int insert(String table) {
+        final UUID customerId = UUID.randomUUID();
+
+        insertedIds.add(customerId);
+        return jdbcTemplate.update(String.format(INSERT, table), customerId, customerId + "@insert.benchmark");
+    }
+
+    private long scan(String table) {
+        final Long count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM " + table + " WHERE LAST_NAME LIKE '%7'", Long.class);
+
+        return count != null ? count : 0;
+    }
+
+    private UUID randomId() {
+        return sampleIds.get(ThreadLocalRandom.current().nextInt(sampleIds.size()));
+    }
+
+    private String randomEmail() {
+        return sampleEmails.get(ThreadLocalRandom.current().nextInt(sampleEmails.size()));
+    }
+
+    private boolean isSeeded() {
+        final Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+                PARTITIONED.toLowerCase());
+
+        return Boolean.TRUE.equals(exists)
+                && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                        "SELECT EXISTS (SELECT 1 FROM pg_trigger WHERE tgname = ?)", Boolean.class,
+                        REGISTRY_TRIGGER.toLowerCase()))
+                && Long.valueOf(rows).equals(jdbcTemplate.queryForObject("SELECT count(*) FROM " + PLAIN, Long.class))
+                && Long.valueOf(rows).equals(jdbcTemplate.queryForObject("SELECT count(*) FROM " + PARTITIONED, Long.class));
+    }
+
+    private void seed() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + PLAIN + ", " + PARTITIONED + ", " + EMAIL_REGISTRY);
+
+        jdbcTemplate.execute("CREATE TABLE " + PLAIN + " " + String.format(COLUMNS, " UNIQUE"));
+        jdbcTemplate.execute("INSERT INTO " + PLAIN + " (CUSTOMER_ID, FIRST_NAME, LAST_NAME, EMAIL, UPDATED_AT) "
+                + "SELECT gen_random_uuid(), 'First' || g, 'Last' || g, 'customer' || g || '@example.com', now() "
+                + "FROM generate_series(1, " + rows + ") g");
+        jdbcTemplate.execute("CREATE INDEX " + PLAIN + "_UPDATED_AT_IDX ON " + PLAIN + " (UPDATED_AT, CUSTOMER_ID)");
+
+        jdbcTemplate.execute("CREATE TABLE " + PARTITIONED + " " + String.format(COLUMNS, "")
+                + " PARTITION BY HASH (CUSTOMER_ID)");
+
+        for (int remainder = 0; remainder < PARTITIONS; remainder++) {
+            jdbcTemplate.execute(String.format("CREATE TABLE %s_P%02d PARTITION OF %s FOR VALUES WITH (MODULUS %d, REMAINDER %d)",
+                    PARTITIONED, remainder, PARTITIONED, PARTITIONS, remainder));
+        }
+
+        jdbcTemplate.execute("INSERT INTO " + PARTITIONED + " SELECT * FROM " + PLAIN);
+        jdbcTemplate.execute("CREATE INDEX " + PARTITIONED + "_UPDATED_AT_IDX ON " + PARTITIONED
+                + " (UPDATED_AT, CUSTOMER_ID)");
+        jdbcTemplate.execute("CREATE TABLE " + EMAIL_REGISTRY + " (EMAIL VARCHAR(255) PRIMARY KEY, CUSTOMER_ID UUID NOT NULL)");
+        jdbcTemplate.execute("INSERT INTO " + EMAIL_REGISTRY + " SELECT EMAIL, CUSTOMER_ID FROM " + PLAIN);
+
+        // Created after the copy, as in the migration; the same function with the benchmark's table names
+        jdbcTemplate.execute("CREATE OR REPLACE FUNCTION " + REGISTRY_TRIGGER + "() RETURNS TRIGGER AS $$\n"
+                + "BEGIN\n"
+                + "    IF TG_OP = 'DELETE' THEN\n"
+                + "        DELETE FROM " + EMAIL_REGISTRY + " WHERE EMAIL = OLD.EMAIL AND CUSTOMER_ID = OLD.CUSTOMER_ID;\n"
+                + "        RETURN NULL;\n"
+                + "    END IF;\n"
+                + "    IF TG_OP = 'UPDATE' THEN\n"
+                + "        IF OLD.EMAIL IS NOT DISTINCT FROM NEW.EMAIL THEN\n"
+                + "            RETURN NULL;\n"
+                + "        END IF;\n"
+                + "        DELETE FROM " + EMAIL_REGISTRY + " WHERE EMAIL = OLD.EMAIL AND CUSTOMER_ID = OLD.CUSTOMER_ID;\n"
+                + "    END IF;\n"
+                + "    IF NEW.EMAIL IS NOT NULL THEN\n"
+                + "        INSERT INTO " + EMAIL_REGISTRY + " (EMAIL, CUSTOMER_ID) VALUES (NEW.EMAIL, NEW.CUSTOMER_ID);\n"
+                + "    END IF;\n"
+                + "    RETURN NULL;\n"
+                + "END $$ LANGUAGE plpgsql");
+        jdbcTemplate.execute("CREATE TRIGGER " + REGISTRY_TRIGGER + " AFTER INSERT OR UPDATE OR DELETE ON " + PARTITIONED
+                + " FOR EACH ROW EXECUTE FUNCTION " + REGISTRY_TRIGGER + "()");
+        jdbcTemplate.execute("ANALYZE " + PLAIN + ", " + PARTITIONED + ", " + EMAIL_REGISTRY);
+    }
+}
@@ -0,0 +1,142 @@
+package com.rent.customer.admission;
+
+import java.util.Arrays;
+
+/**
+ * The `AdaptiveConcurrencyLimiter` class bounds the number of requests of one `EndpointClass` that may run
+ * concurrently. The limit adapts to observed latency using additive-increase/multiplicative-decrease, once per
+ * sampling window: at the end of a window, the limit shrinks by `backoffRatio` if the window's latency
+ * `percentile` shows congestion, and otherwise grows by one if the limit was actually being used.
+ * <p>
+ * A window is congested when its percentile exceeds both the target latency and `tolerance` times the baseline,
+ * the lowest percentile seen recently. An endpoint that is slow even without load, such as a listing of a large
+ * table, raises the baseline rather than keeping its limit pinned at the minimum; queueing still shows up as a
+ * percentile well above that baseline. Times are passed in by the caller as `System.nanoTime()` values.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int MAX_SAMPLES = 256;
+    private static final double BASELINE_DRIFT = 0.05;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+    private final long windowNanos;
+    private final double percentile;
+    private final double tolerance;
+    private final long[] samples = new long[MAX_SAMPLES];
+
+    private int limit;
+    private int inFlight;
+    private int sampleCount;
+    private boolean saturated;
+    private long windowStartNanos;
+    private long baselineNanos = Long.MAX_VALUE;
+
+    /**
+     * Constructs a new `AdaptiveConcurrencyLimiter`.
+     *
+     * @param initialLimit       the limit used until latency has been observed.
+     * @param minLimit           the lowest the limit may shrink to.
+     * @param maxLimit           the highest the limit may grow to.
+     * @param targetLatencyNanos the latency below which a window is never considered congested.
+     * @param backoffRatio       the factor applied to the limit after a congested window.
+     * @param windowNanos        the length of a sampling window; a window also ends after 256 samples.
+     * @param percentile         the latency percentile of a window compared with the baseline, between 0 and 1.
+     * @param tolerance          how many times the baseline the percentile may reach before the window is congested.
+     * @param nowNanos           the current time in nanoseconds.
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long targetLatencyNanos,
+                                      double backoffRatio, long windowNanos, double percentile, double tolerance,
+                                      long nowNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.backoffRatio = backoffRatio;
+        this.windowNanos = windowNanos;
+        this.percentile = percentile;
+        this.tolerance = tolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.windowStartNanos = nowNanos;
+    }
+
+    /**
+     * Tries to admit a request.
+     *
+     * @return `true` if the request may run, in which case `release` or `cancel` must be called once it completes.
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= limit) {
+            return false;
+        }
+
+        inFlight++;
+        saturated |= inFlight * 2 >= limit;
+        return true;
+    }
+
+    /**
+     * Releases a request admitted by `tryAcquire` and records its latency, adapting the limit if this closes the
+     * current window.
+     *
+     * @param latencyNanos the time the request took to complete.
+     * @param nowNanos     the current time in nanoseconds.
+     */
+    public synchronized void release(long latencyNanos, long nowNanos) {
+        inFlight--;
+        samples[sampleCount++] = latencyNanos;
+
+        if (sampleCount == MAX_SAMPLES || nowNanos - windowStartNanos >= windowNanos) {
+            adapt();
+            sampleCount = 0;
+            saturated = inFlight * 2 >= limit;
+            windowStartNanos = nowNanos;
+        }
+    }
+
+    /**
+     * Releases a request admitted by `tryAcquire` that was rejected before running, without recording a latency.
+     */
+    public synchronized void cancel() {
+        inFlight--;
+    }
+
+    /**
+     * Retrieves the current concurrency limit.
+     *
+     * @return the current limit.
+     */
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Retrieves the number of requests currently running.
+     *
+     * @return the number of admitted requests that have not been released yet.
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private void adapt() {
+        final long[] window = Arrays.copyOf(samples, sampleCount);
+
+        Arrays.sort(window);
+
+        final long observed = window[Math.min(sampleCount - 1, (int) (percentile * sampleCount))];
+        final boolean congested = observed > targetLatencyNanos && observed > tolerance * baselineNanos;
+
+        // Falls to a faster window at once, follows slower ones gradually so that congestion is not absorbed
+        baselineNanos = observed < baselineNanos
+                ? observed
+                : baselineNanos + (long) ((observed - baselineNanos) * BASELINE_DRIFT);
+
+        if (congested) {
+            limit = Math.max(minLimit, (int) (limit * backoffRatio));
+        } else if (saturated) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+}
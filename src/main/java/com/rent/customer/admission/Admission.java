@@ -0,0 +1,22 @@
+package com.rent.customer.admission;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the `EndpointClass` of a controller method. Methods without this annotation are treated as
+ * `EndpointClass.CHEAP`.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Admission {
+
+    /**
+     * The class of the annotated endpoint.
+     *
+     * @return the endpoint class.
+     */
+    EndpointClass value();
+}
@@ -0,0 +1,45 @@
+package com.rent.customer.admission;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * The `AdmissionControlConfig` class registers the `AdmissionControlInterceptor` in front of the customer
+ * endpoints. Admission control can be disabled with `customer.admission.enabled: false`.
+ */
+@Configuration
+@EnableConfigurationProperties(AdmissionControlProperties.class)
+@ConditionalOnProperty(name = "customer.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig implements WebMvcConfigurer {
+
+    private final AdmissionControlProperties properties;
+
+    /**
+     * Constructs a new `AdmissionControlConfig` with the specified configuration.
+     *
+     * @param properties the admission control configuration.
+     */
+    public AdmissionControlConfig(AdmissionControlProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Creates the interceptor enforcing rate limits and bulkheads.
+     *
+     * @return the admission control interceptor.
+     */
+    @Bean
+    public AdmissionControlInterceptor admissionControlInterceptor() {
+        return new AdmissionControlInterceptor(properties);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(admissionControlInterceptor())
+                .addPathPatterns("/customer", "/customer/**");
+    }
+}
@@ -0,0 +1,163 @@
+package com.rent.customer.admission;
+
+import com.rent.customer.exception.TooManyRequestsException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.security.Principal;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The `AdmissionControlInterceptor` class decides whether a request may reach a controller. A request is
+ * admitted only if the bulkhead of its `EndpointClass` has a free slot and its client still has tokens in its
+ * `TokenBucket`; otherwise a `TooManyRequestsException` is thrown and the request is answered with
+ * `429 Too Many Requests` without touching the database. The bulkhead is checked first, so that a request it
+ * rejects does not cost its client a token.
+ * <p>
+ * Only requests with a cost are rate limited: by default, cheap endpoints cost nothing and are bounded by their
+ * bulkhead alone. Clients are identified by their authenticated principal or, failing that, by their remote address,
+ * never by anything the client chooses; behind a load balancer, `server.forward-headers-strategy: native` makes that
+ * the address forwarded by a trusted proxy rather than the load balancer's own. At most
+ * `rate-limit.max-clients` buckets are kept: once the map is full, new clients share a single overflow bucket, so
+ * that a flood of addresses neither grows memory nor gets a fresh allowance per address.
+ */
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlInterceptor.class);
+
+    private static final String LIMITER_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".limiter";
+    private static final String START_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".start";
+    private static final long BULKHEAD_RETRY_AFTER_SECONDS = 1;
+
+    private final AdmissionControlProperties properties;
+    private final Map<EndpointClass, AdaptiveConcurrencyLimiter> limiters = new EnumMap<>(EndpointClass.class);
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final TokenBucket overflowBucket;
+
+    /**
+     * Constructs a new `AdmissionControlInterceptor` with the specified configuration.
+     *
+     * @param properties the admission control configuration.
+     */
+    public AdmissionControlInterceptor(AdmissionControlProperties properties) {
+        final long now = System.nanoTime();
+
+        this.properties = properties;
+        this.limiters.put(EndpointClass.CHEAP, properties.getCheap().toLimiter(now));
+        this.limiters.put(EndpointClass.EXPENSIVE, properties.getExpensive().toLimiter(now));
+        this.overflowBucket = newBucket(now);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+
+        final EndpointClass endpointClass = endpointClass((HandlerMethod) handler);
+        final double cost = cost(endpointClass);
+        final long now = System.nanoTime();
+        final AdaptiveConcurrencyLimiter limiter = limiters.get(endpointClass);
+
+        if (!limiter.tryAcquire()) {
+            logger.debug("Bulkhead {} saturated at limit {}", endpointClass, limiter.getLimit());
+            throw new TooManyRequestsException("Too many concurrent " + endpointClass + " requests",
+                    BULKHEAD_RETRY_AFTER_SECONDS);
+        }
+
+        final String clientId = cost > 0 ? clientId(request) : null;
+        final long waitNanos = clientId != null ? bucket(clientId, now).tryAcquire(cost, now) : 0;
+
+        if (waitNanos > 0) {
+            limiter.cancel();
+            logger.debug("Rate limit exceeded for client: {}", clientId);
+            throw new TooManyRequestsException("Rate limit exceeded for client " + clientId,
+                    (long) Math.ceil((double) waitNanos / TimeUnit.SECONDS.toNanos(1)));
+        }
+
+        request.setAttribute(LIMITER_ATTRIBUTE, limiter);
+        request.setAttribute(START_ATTRIBUTE, now);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception exception) {
+        final Object limiter = request.getAttribute(LIMITER_ATTRIBUTE);
+
+        if (limiter != null) {
+            final long now = System.nanoTime();
+
+            request.removeAttribute(LIMITER_ATTRIBUTE);
+            ((AdaptiveConcurrencyLimiter) limiter).release(now - (Long) request.getAttribute(START_ATTRIBUTE), now);
+        }
+    }
+
+    /**
+     * Discards the buckets of clients that have been idle long enough to have refilled completely.
+     */
+    @Scheduled(fixedDelayString = "${customer.admission.rate-limit.eviction-interval:60000}")
+    public void evictIdleBuckets() {
+        final long idleNanos = properties.getRateLimit().getIdleTimeout().toNanos();
+        final long now = System.nanoTime();
+
+        buckets.values().removeIf(bucket -> bucket.isIdle(idleNanos, now));
+    }
+
+    /**
+     * Retrieves the bulkhead of the specified endpoint class.
+     *
+     * @param endpointClass the endpoint class.
+     * @return the concurrency limiter guarding endpoints of that class.
+     */
+    public AdaptiveConcurrencyLimiter limiter(EndpointClass endpointClass) {
+        return limiters.get(endpointClass);
+    }
+
+    private TokenBucket bucket(String clientId, long now) {
+        final TokenBucket bucket = buckets.get(clientId);
+
+        if (bucket != null) {
+            return bucket;
+        }
+
+        // Concurrent first requests may overshoot the bound by at most one bucket per request thread
+        if (buckets.size() >= properties.getRateLimit().getMaxClients()) {
+            return overflowBucket;
+        }
+
+        return buckets.computeIfAbsent(clientId, id -> newBucket(now));
+    }
+
+    private TokenBucket newBucket(long now) {
+        return new TokenBucket(properties.getRateLimit().getCapacity(), properties.getRateLimit().getRefillPerSecond(),
+                now);
+    }
+
+    private double cost(EndpointClass endpointClass) {
+        return endpointClass == EndpointClass.EXPENSIVE
+                ? properties.getRateLimit().getExpensiveCost()
+                : properties.getRateLimit().getCheapCost();
+    }
+
+    private static String clientId(HttpServletRequest request) {
+        final Principal principal = request.getUserPrincipal();
+
+        return principal != null ? "principal:" + principal.getName() : request.getRemoteAddr();
+    }
+
+    private static EndpointClass endpointClass(HandlerMethod handlerMethod) {
+        final Admission admission = handlerMethod.getMethodAnnotation(Admission.class);
+
+        return admission != null ? admission.value() : EndpointClass.CHEAP;
+    }
+}
@@ -0,0 +1,194 @@
+package com.rent.customer.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * The `AdmissionControlProperties` class binds the `customer.admission` configuration: the per-client
+ * token-bucket rate limit and one adaptive bulkhead per `EndpointClass`.
+ */
+@ConfigurationProperties(prefix = "customer.admission")
+public class AdmissionControlProperties {
+
+    private boolean enabled = true;
+    private final RateLimit rateLimit = new RateLimit();
+    private final Bulkhead cheap = new Bulkhead(50, 10, 200, Duration.ofMillis(50));
+    private final Bulkhead expensive = new Bulkhead(4, 1, 20, Duration.ofMillis(500));
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public Bulkhead getCheap() {
+        return cheap;
+    }
+
+    public Bulkhead getExpensive() {
+        return expensive;
+    }
+
+    /**
+     * Per-client token-bucket settings. Cheap endpoints take `cheapCost` tokens per request, none by default, and
+     * expensive endpoints take `expensiveCost`. At most `maxClients` clients get a bucket of their own; further
+     * clients share one until idle buckets are evicted.
+     */
+    public static class RateLimit {
+        private double capacity = 100;
+        private double refillPerSecond = 50;
+        private double cheapCost = 0;
+        private double expensiveCost = 5;
+        private Duration idleTimeout = Duration.ofMinutes(10);
+        private int maxClients = 100_000;
+
+        public double getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(double capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+
+        public void setRefillPerSecond(double refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+        }
+
+        public double getCheapCost() {
+            return cheapCost;
+        }
+
+        public void setCheapCost(double cheapCost) {
+            this.cheapCost = cheapCost;
+        }
+
+        public double getExpensiveCost() {
+            return expensiveCost;
+        }
+
+        public void setExpensiveCost(double expensiveCost) {
+            this.expensiveCost = expensiveCost;
+        }
+
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+
+        public int getMaxClients() {
+            return maxClients;
+        }
+
+        public void setMaxClients(int maxClients) {
+            this.maxClients = maxClients;
+        }
+    }
+
+    /**
+     * Adaptive concurrency limit settings for one `EndpointClass`. The limit is adapted once per `window`, from the
+     * `percentile` of the latencies observed during it.
+     */
+    public static class Bulkhead {
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+        private Duration targetLatency;
+        private double backoffRatio = 0.9;
+        private Duration window = Duration.ofSeconds(1);
+        private double percentile = 0.9;
+        private double tolerance = 2;
+
+        public Bulkhead() {
+        }
+
+        Bulkhead(int initialLimit, int minLimit, int maxLimit, Duration targetLatency) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.targetLatency = targetLatency;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public Duration getTargetLatency() {
+            return targetLatency;
+        }
+
+        public void setTargetLatency(Duration targetLatency) {
+            this.targetLatency = targetLatency;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public double getTolerance() {
+            return tolerance;
+        }
+
+        public void setTolerance(double tolerance) {
+            this.tolerance = tolerance;
+        }
+
+        AdaptiveConcurrencyLimiter toLimiter(long nowNanos) {
+            return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, targetLatency.toNanos(),
+                    backoffRatio, window.toNanos(), percentile, tolerance, nowNanos);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.rent.customer.admission;
+
+/**
+ * The `EndpointClass` enum groups endpoints by their cost, so that each group gets its own concurrency
+ * limit (bulkhead) and expensive endpoints cannot starve cheap, latency-critical ones.
+ */
+public enum EndpointClass {
+    /**
+     * Cheap, latency-critical endpoints such as lookups by id.
+     */
+    CHEAP,
+
+    /**
+     * Expensive endpoints such as listings, exports and bulk operations.
+     */
+    EXPENSIVE
+}
@@ -0,0 +1,75 @@
+package com.rent.customer.admission;
+
+/**
+ * The `TokenBucket` class implements a token-bucket rate limit for a single client. The bucket holds at most
+ * `capacity` tokens and is refilled continuously at `refillPerSecond` tokens per second.
+ * Times are passed in by the caller as `System.nanoTime()` values.
+ */
+public class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final double capacity;
+    private final double refillPerNano;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private long lastAcquireNanos;
+
+    /**
+     * Constructs a new, full `TokenBucket`.
+     *
+     * @param capacity        the maximum number of tokens, i.e. the allowed burst.
+     * @param refillPerSecond the number of tokens added per second, i.e. the sustained rate.
+     * @param nowNanos        the current time in nanoseconds.
+     */
+    public TokenBucket(double capacity, double refillPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / NANOS_PER_SECOND;
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+        this.lastAcquireNanos = nowNanos;
+    }
+
+    /**
+     * Tries to take the specified number of tokens from the bucket.
+     *
+     * @param cost     the number of tokens required by the request.
+     * @param nowNanos the current time in nanoseconds.
+     * @return `0` if the tokens were taken, otherwise the number of nanoseconds until enough tokens are available.
+     */
+    public synchronized long tryAcquire(double cost, long nowNanos) {
+        refill(nowNanos);
+        lastAcquireNanos = nowNanos;
+
+        if (tokens >= cost) {
+            tokens -= cost;
+            return 0;
+        }
+
+        return (long) Math.ceil((Math.min(cost, capacity) - tokens) / refillPerNano);
+    }
+
+    /**
+     * Checks whether the bucket has not been used for at least the specified time. An idle bucket that has
+     * refilled completely can be discarded without changing the behaviour of the rate limit.
+     *
+     * @param idleNanos the idle time in nanoseconds.
+     * @param nowNanos  the current time in nanoseconds.
+     * @return `true` if the bucket is idle and full.
+     */
+    public synchronized boolean isIdle(long idleNanos, long nowNanos) {
+        refill(nowNanos);
+
+        return tokens >= capacity && nowNanos - lastAcquireNanos >= idleNanos;
+    }
+
+    private void refill(long nowNanos) {
+        final long elapsed = nowNanos - lastRefillNanos;
+
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.rent.customer.cache;
+
+import com.rent.customer.mapper.CustomerMapper;
+import com.rent.customer.model.Customer;
+import com.rent.customer.model.dto.CustomerDTO;
+import com.rent.customer.repository.CustomerBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The `CustomerCacheWarmer` class fills the `CustomerResponseCache` with the most recently written customers once
+ * the application is ready. It runs on a background thread, page by page, so that it neither delays readiness
+ * nor holds a connection for long; requests served meanwhile simply miss.
+ */
+@Component
+public class CustomerCacheWarmer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerCacheWarmer.class);
+
+    private final CustomerBulkRepository repository;
+    private final CustomerResponseCache cache;
+    private final int size;
+    private final int pageSize;
+
+    /**
+     * Constructs a new `CustomerCacheWarmer`.
+     *
+     * @param repository the repository reading customers by recency.
+     * @param cache      the cache to fill.
+     * @param size       the maximum number of customers loaded; `0` disables warm-up.
+     * @param pageSize   the number of customers read per query.
+     */
+    public CustomerCacheWarmer(CustomerBulkRepository repository,
+                               CustomerResponseCache cache,
+                               @Value("${customer.cache.warm-up.size:10000}") int size,
+                               @Value("${customer.cache.warm-up.page-size:500}") int pageSize) {
+        this.repository = repository;
+        this.cache = cache;
+        this.size = size;
+        this.pageSize = pageSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!cache.isEnabled() || size <= 0) {
+            return;
+        }
+
+        final Thread thread = new Thread(this::warm, "customer-cache-warmer");
+
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void warm() {
+        final long start = System.nanoTime();
+        int loaded = 0;
+        Customer last = null;
+
+        try {
+            while (loaded < size && !Thread.currentThread().isInterrupted()) {
+                final long stamp = cache.stamp();
+                final List<Customer> page = repository.findRecentlyUpdated(last, Math.min(pageSize, size - loaded));
+
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                final List<CustomerDTO> customers = new ArrayList<>(page.size());
+
+                page.forEach(customer -> customers.add(CustomerMapper.toCustomerDTO(customer)));
+                loaded += page.size();
+                last = page.get(page.size() - 1);
+
+                if (!cache.warm(customers, stamp) || page.size() < pageSize) {
+                    break;
+                }
+            }
+
+            logger.info("Warmed customer cache with {} entries in {} ms", cache.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException exception) {
+            logger.warn("Customer cache warm-up stopped after {} customers", loaded, exception);
+        }
+    }
+}
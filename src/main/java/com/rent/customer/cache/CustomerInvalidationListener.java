@@ -0,0 +1,204 @@
+package com.rent.customer.cache;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The `CustomerInvalidationListener` class applies the invalidations sent by other instances through
+ * `CustomerInvalidationService`, when `customer.cache.invalidation.enabled` is set.
+ * <p>
+ * It listens on a dedicated connection, outside the pool, on its own thread. Whenever invalidations may have been
+ * missed, the cache is cleared instead: while the connection is down the cache is suspended, on reconnection it is
+ * cleared, and a sequence gap that stays open for `customer.cache.invalidation.reorder-window` clears it too.
+ * The connection is checked every `customer.cache.invalidation.heartbeat-interval` without notifications.
+ */
+@Component
+public class CustomerInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerInvalidationListener.class);
+
+    private final CustomerResponseCache cache;
+    private final CustomerInvalidationService invalidationService;
+    private final DataSourceProperties dataSourceProperties;
+    private final InvalidationSequenceTracker tracker;
+    private final Duration heartbeatInterval;
+    private final Duration reconnectDelay;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+
+    /**
+     * Constructs a new `CustomerInvalidationListener`.
+     *
+     * @param cache                the cache of this instance.
+     * @param invalidationService  the service sending invalidations, providing the channel and this node's id.
+     * @param dataSourceProperties the datasource settings used to open the listening connection.
+     * @param reorderWindow        how long a sequence gap may stay open before the cache is cleared.
+     * @param heartbeatInterval    how long to wait for notifications before checking the connection.
+     * @param reconnectDelay       how long to wait before reconnecting after a failure.
+     */
+    public CustomerInvalidationListener(CustomerResponseCache cache,
+                                        CustomerInvalidationService invalidationService,
+                                        DataSourceProperties dataSourceProperties,
+                                        @Value("${customer.cache.invalidation.reorder-window:2s}") Duration reorderWindow,
+                                        @Value("${customer.cache.invalidation.heartbeat-interval:5s}") Duration heartbeatInterval,
+                                        @Value("${customer.cache.invalidation.reconnect-delay:1s}") Duration reconnectDelay) {
+        this.cache = cache;
+        this.invalidationService = invalidationService;
+        this.dataSourceProperties = dataSourceProperties;
+        this.tracker = new InvalidationSequenceTracker(reorderWindow.toNanos(), TimeUnit.MINUTES.toNanos(10));
+        this.heartbeatInterval = heartbeatInterval;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    // Runs before the cache warmer, so that warm-up is not discarded by the suspension below
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    void start() {
+        if (!invalidationService.isEnabled() || !cache.isEnabled()) {
+            return;
+        }
+
+        cache.suspend();
+        running = true;
+
+        try {
+            connect();
+        } catch (SQLException exception) {
+            logger.warn("Cannot listen for customer invalidations yet, the response cache stays suspended", exception);
+            close();
+        }
+
+        thread = new Thread(this::run, "customer-invalidation-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+
+        if (thread != null) {
+            thread.interrupt();
+        }
+
+        close();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (connection == null) {
+                    connect();
+                }
+
+                poll();
+            } catch (SQLException exception) {
+                if (!running) {
+                    return;
+                }
+
+                logger.warn("Lost the customer invalidation channel, suspending the response cache", exception);
+                cache.suspend();
+                close();
+                sleep(reconnectDelay);
+            }
+        }
+    }
+
+    private void connect() throws SQLException {
+        connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + invalidationService.getChannel());
+        }
+
+        tracker.reset();
+        cache.resume();
+        logger.info("Listening for customer invalidations on channel {}", invalidationService.getChannel());
+    }
+
+    private void poll() throws SQLException {
+        final PGNotification[] notifications = connection.unwrap(PGConnection.class)
+                .getNotifications((int) heartbeatInterval.toMillis());
+
+        if (notifications == null || notifications.length == 0) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT 1");
+            }
+        } else {
+            for (PGNotification notification : notifications) {
+                apply(notification.getParameter());
+            }
+        }
+
+        if (tracker.hasExpiredGap(System.nanoTime())) {
+            logger.warn("Customer invalidations were lost, clearing the response cache");
+            cache.clear();
+        }
+    }
+
+    private void apply(String payload) {
+        final InvalidationMessage message;
+
+        try {
+            message = InvalidationMessage.decode(payload);
+        } catch (IllegalArgumentException exception) {
+            logger.warn("Ignoring malformed customer invalidation, clearing the response cache", exception);
+            cache.clear();
+            return;
+        }
+
+        if (message.getNodeId().equals(invalidationService.getNodeId())) {
+            return;
+        }
+
+        message.getVersions().forEach(cache::evict);
+
+        if (tracker.receive(message.getNodeId(), message.getSequence(), System.nanoTime())) {
+            logger.warn("Customer invalidations from {} were lost, clearing the response cache", message.getNodeId());
+            cache.clear();
+        }
+    }
+
+    private void close() {
+        final Connection current = connection;
+
+        connection = null;
+
+        if (current != null) {
+            try {
+                current.close();
+            } catch (SQLException exception) {
+                logger.debug("Failed to close the customer invalidation connection", exception);
+            }
+        }
+    }
+
+    private void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
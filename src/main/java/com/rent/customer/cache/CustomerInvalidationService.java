@@ -0,0 +1,147 @@
+package com.rent.customer.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * The `CustomerInvalidationService` class evicts updated and deleted customers from the `CustomerResponseCache` of
+ * this instance and, with `customer.cache.invalidation.enabled`, of every instance sharing the database, through
+ * PostgreSQL `NOTIFY` on `customer.cache.invalidation.channel`.
+ * <p>
+ * Called within the transaction of the change, the notification is sent just before it commits, and only delivered
+ * if it does; the local eviction runs after the commit. A change that rolls back before committing never takes a
+ * sequence number, so it leaves no gap for the other instances to mistake for a lost message.
+ */
+@Service
+public class CustomerInvalidationService {
+
+    private static final String NOTIFY = "SELECT pg_notify(?, ?)";
+    private static final Pattern CHANNEL_PATTERN = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final CustomerResponseCache cache;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Constructs a new `CustomerInvalidationService`.
+     *
+     * @param cache        the cache of this instance.
+     * @param jdbcTemplate the template used to send notifications.
+     * @param enabled      whether other instances are notified.
+     * @param channel      the notification channel, a lower-case PostgreSQL identifier.
+     */
+    public CustomerInvalidationService(CustomerResponseCache cache,
+                                       JdbcTemplate jdbcTemplate,
+                                       @Value("${customer.cache.invalidation.enabled:false}") boolean enabled,
+                                       @Value("${customer.cache.invalidation.channel:customer_invalidation}") String channel) {
+        if (!CHANNEL_PATTERN.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid invalidation channel: " + channel);
+        }
+
+        this.cache = cache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.channel = channel;
+    }
+
+    /**
+     * Invalidates an updated customer.
+     *
+     * @param id      the identifier of the customer.
+     * @param version the version written by the update.
+     */
+    public void invalidate(UUID id, long version) {
+        invalidate(Collections.singletonMap(id, version));
+    }
+
+    /**
+     * Invalidates deleted customers.
+     *
+     * @param ids the identifiers of the deleted customers.
+     */
+    public void invalidateDeleted(Collection<UUID> ids) {
+        final Map<UUID, Long> versions = new LinkedHashMap<>(ids.size() * 2);
+
+        ids.forEach(id -> versions.put(id, Long.MAX_VALUE));
+        invalidate(versions);
+    }
+
+    /**
+     * Retrieves the identifier of this instance in notifications, so that it can ignore its own.
+     *
+     * @return the node identifier.
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Retrieves the notification channel.
+     *
+     * @return the channel name.
+     */
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * Checks whether other instances are notified.
+     *
+     * @return `true` if cluster-wide invalidation is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private void invalidate(Map<UUID, Long> versions) {
+        if (versions.isEmpty()) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            notifyOthers(versions);
+            evict(versions);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                notifyOthers(versions);
+            }
+
+            @Override
+            public void afterCommit() {
+                evict(versions);
+            }
+        });
+    }
+
+    private void notifyOthers(Map<UUID, Long> versions) {
+        if (!enabled) {
+            return;
+        }
+
+        for (InvalidationMessage message : InvalidationMessage.split(nodeId, sequence::incrementAndGet, versions)) {
+            jdbcTemplate.query(NOTIFY, resultSet -> null, channel, message.encode());
+        }
+    }
+
+    private void evict(Map<UUID, Long> versions) {
+        versions.forEach(cache::evict);
+    }
+}
@@ -0,0 +1,281 @@
+package com.rent.customer.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rent.customer.model.dto.CustomerDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * The `CustomerResponseCache` class keeps the encoded JSON body of `GET /customer/{id}`, with its ETag, for the
+ * most recently used customers, so that a hit is written to the response as is, without mapping or serializing.
+ * <p>
+ * Entries carry the version of the customer they were encoded from. An eviction names the version the customer
+ * reached (`Long.MAX_VALUE` once deleted): it only removes older entries, and is remembered as a tombstone so that
+ * a load or a message that started before it cannot put an older version back. Evictions may therefore arrive
+ * late or out of order, locally or from other instances (see `CustomerInvalidationListener`). `clear` drops every
+ * entry, and any load started before it; `suspend` additionally stops caching until `resume`.
+ * <p>
+ * Entries have no time-to-live, so changes made on other instances are only seen through invalidation. The cache is
+ * therefore off unless `customer.cache.invalidation.enabled` is set, or `customer.cache.enabled` is set explicitly
+ * for a single instance. When off, responses are still encoded once but never stored.
+ */
+@Component
+public class CustomerResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final Map<UUID, CachedResponse> entries;
+    private final Map<UUID, Long> tombstones;
+
+    private long generation;
+    private boolean suspended;
+
+    /**
+     * Constructs a new `CustomerResponseCache`.
+     *
+     * @param objectMapper the mapper used by Spring MVC, so that cached bodies match uncached ones.
+     * @param enabled      whether responses are cached.
+     * @param maxEntries   the maximum number of customers kept, and of evictions remembered; the least recently
+     *                     used are dropped first.
+     */
+    public CustomerResponseCache(ObjectMapper objectMapper,
+                                 @Value("${customer.cache.enabled:${customer.cache.invalidation.enabled:false}}") boolean enabled,
+                                 @Value("${customer.cache.max-entries:50000}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.entries = boundedMap(maxEntries);
+        this.tombstones = boundedMap(maxEntries);
+    }
+
+    /**
+     * Checks whether responses are cached.
+     *
+     * @return `true` if the cache is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Retrieves the response of the specified customer, loading and encoding it on a miss.
+     *
+     * @param id     the identifier of the customer.
+     * @param loader the function loading the customer on a miss; its exceptions are propagated.
+     * @return the encoded response.
+     */
+    public CachedResponse get(UUID id, Function<UUID, CustomerDTO> loader) {
+        final long stamp;
+
+        synchronized (entries) {
+            final CachedResponse cached = entries.get(id);
+
+            if (cached != null) {
+                return cached;
+            }
+
+            stamp = generation;
+        }
+
+        final CustomerDTO customer = loader.apply(id);
+        final CachedResponse response = encode(customer);
+
+        synchronized (entries) {
+            if (isStorable(customer, stamp)) {
+                entries.put(id, response);
+            }
+        }
+
+        return response;
+    }
+
+    /**
+     * Retrieves the current generation, to be passed to `warm` by a caller about to read customers.
+     *
+     * @return the number of times the cache was cleared.
+     */
+    public long stamp() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    /**
+     * Stores customers read in the background, as long as the cache was not cleared since `stamp` and there is
+     * room left; entries already present are kept.
+     *
+     * @param customers the customers to store.
+     * @param stamp     the value of `stamp()` taken before the customers were read.
+     * @return `false` if the cache is full, so that warming should stop.
+     */
+    public boolean warm(Collection<CustomerDTO> customers, long stamp) {
+        for (CustomerDTO customer : customers) {
+            final CachedResponse response = encode(customer);
+
+            synchronized (entries) {
+                if (entries.size() >= maxEntries) {
+                    return false;
+                }
+
+                if (isStorable(customer, stamp)) {
+                    entries.putIfAbsent(customer.getId(), response);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Evicts the specified customer if its cached version is older than the specified one.
+     *
+     * @param id      the identifier of the customer that was updated or deleted.
+     * @param version the version the customer reached, or `Long.MAX_VALUE` if it was deleted.
+     */
+    public void evict(UUID id, long version) {
+        synchronized (entries) {
+            tombstones.merge(id, version, Math::max);
+
+            final CachedResponse cached = entries.get(id);
+
+            if (cached != null && cached.version < version) {
+                entries.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Evicts the specified deleted customers.
+     *
+     * @param ids the identifiers of the customers that were deleted.
+     */
+    public void evictDeleted(Collection<UUID> ids) {
+        synchronized (entries) {
+            for (UUID id : ids) {
+                tombstones.put(id, Long.MAX_VALUE);
+                entries.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Evicts every customer, including those being loaded.
+     */
+    public void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    /**
+     * Evicts every customer and stops caching, for as long as evictions from other instances may be missed.
+     */
+    public void suspend() {
+        synchronized (entries) {
+            suspended = true;
+            clear();
+        }
+    }
+
+    /**
+     * Evicts every customer, since evictions may have been missed while suspended, and resumes caching.
+     */
+    public void resume() {
+        synchronized (entries) {
+            suspended = false;
+            clear();
+        }
+    }
+
+    /**
+     * Retrieves the number of cached customers.
+     *
+     * @return the number of entries.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    // Called with the lock held
+    private boolean isStorable(CustomerDTO customer, long stamp) {
+        final Long evictedVersion = tombstones.get(customer.getId());
+
+        return enabled && !suspended && stamp == generation
+                && (evictedVersion == null || customer.getVersion() >= evictedVersion);
+    }
+
+    private CachedResponse encode(CustomerDTO customer) {
+        final byte[] body;
+
+        try {
+            body = objectMapper.writeValueAsBytes(customer);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Cannot encode customer " + customer.getId(), exception);
+        }
+
+        return new CachedResponse(body, '"' + DigestUtils.md5DigestAsHex(body) + '"', customer.getVersion());
+    }
+
+    private static <V> Map<UUID, V> boundedMap(int maxEntries) {
+        return new LinkedHashMap<UUID, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * An encoded customer response.
+     */
+    public static final class CachedResponse {
+        private final byte[] body;
+        private final String eTag;
+        private final long version;
+
+        CachedResponse(byte[] body, String eTag, long version) {
+            this.body = body;
+            this.eTag = eTag;
+            this.version = version;
+        }
+
+        /**
+         * Retrieves the JSON body; it is shared and must not be modified.
+         *
+         * @return the encoded customer.
+         */
+        public byte[] getBody() {
+            return body;
+        }
+
+        /**
+         * Retrieves the strong ETag of the body.
+         *
+         * @return the quoted hash of the body.
+         */
+        public String getETag() {
+            return eTag;
+        }
+
+        /**
+         * Retrieves the version of the customer the body was encoded from.
+         *
+         * @return the customer version.
+         */
+        public long getVersion() {
+            return version;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.rent.customer.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * The `InvalidationMessage` class is the payload of a customer invalidation notification:
+ * `<node id>;<sequence>;<customer id>:<version>,<customer id>:<version>...`. The sequence is per sending node and
+ * lets receivers detect lost messages. Large invalidations are split, since a NOTIFY payload must stay below
+ * 8000 bytes.
+ */
+final class InvalidationMessage {
+
+    // 36 (UUID) + 1 + 19 (long) + 1 bytes per entry keeps 100 entries well below the NOTIFY payload limit
+    static final int MAX_ENTRIES = 100;
+
+    private final String nodeId;
+    private final long sequence;
+    private final Map<UUID, Long> versions;
+
+    InvalidationMessage(String nodeId, long sequence, Map<UUID, Long> versions) {
+        this.nodeId = nodeId;
+        this.sequence = sequence;
+        this.versions = versions;
+    }
+
+    static List<InvalidationMessage> split(String nodeId, LongSupplier sequences, Map<UUID, Long> versions) {
+        final List<InvalidationMessage> messages = new ArrayList<>(versions.size() / MAX_ENTRIES + 1);
+        Map<UUID, Long> chunk = new LinkedHashMap<>();
+
+        for (Map.Entry<UUID, Long> entry : versions.entrySet()) {
+            chunk.put(entry.getKey(), entry.getValue());
+
+            if (chunk.size() == MAX_ENTRIES) {
+                messages.add(new InvalidationMessage(nodeId, sequences.getAsLong(), chunk));
+                chunk = new LinkedHashMap<>();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            messages.add(new InvalidationMessage(nodeId, sequences.getAsLong(), chunk));
+        }
+
+        return messages;
+    }
+
+    static InvalidationMessage decode(String payload) {
+        final String[] parts = payload.split(";", 3);
+
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed invalidation message: " + payload);
+        }
+
+        final Map<UUID, Long> versions = new LinkedHashMap<>();
+
+        try {
+            for (String entry : parts[2].split(",")) {
+                final int separator = entry.indexOf(':');
+
+                versions.put(UUID.fromString(entry.substring(0, separator)),
+                        Long.parseLong(entry.substring(separator + 1)));
+            }
+
+            return new InvalidationMessage(parts[0], Long.parseLong(parts[1]), versions);
+        } catch (RuntimeException exception) {
+            throw new IllegalArgumentException("Malformed invalidation message: " + payload, exception);
+        }
+    }
+
+    String encode() {
+        final StringBuilder payload = new StringBuilder(40 + versions.size() * 57)
+                .append(nodeId).append(';').append(sequence).append(';');
+
+        versions.forEach((id, version) -> payload.append(id).append(':').append(version).append(','));
+        payload.setLength(payload.length() - 1);
+
+        return payload.toString();
+    }
+
+    String getNodeId() {
+        return nodeId;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    Map<UUID, Long> getVersions() {
+        return Collections.unmodifiableMap(versions);
+    }
+}
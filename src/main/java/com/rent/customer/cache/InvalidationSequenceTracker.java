@@ -0,0 +1,105 @@
+package com.rent.customer.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * The `InvalidationSequenceTracker` class detects lost invalidation messages from the per-node sequence numbers.
+ * Notifications are delivered in commit order while sequences are taken before commit, so a gap is only reported
+ * once it stayed open for the reorder window. Not thread-safe: it is used by the listener thread only.
+ */
+final class InvalidationSequenceTracker {
+
+    // A larger gap is reported at once rather than tracked sequence by sequence
+    private static final long MAX_GAP = 1000;
+
+    private final long reorderWindowNanos;
+    private final long idleTimeoutNanos;
+    private final Map<String, Sender> senders = new HashMap<>();
+
+    InvalidationSequenceTracker(long reorderWindowNanos, long idleTimeoutNanos) {
+        this.reorderWindowNanos = reorderWindowNanos;
+        this.idleTimeoutNanos = idleTimeoutNanos;
+    }
+
+    /**
+     * Records a received message.
+     *
+     * @return `true` if messages were lost for certain, so that the cache must be cleared.
+     */
+    boolean receive(String nodeId, long sequence, long nowNanos) {
+        final Sender sender = senders.get(nodeId);
+
+        if (sender == null) {
+            senders.put(nodeId, new Sender(sequence + 1, nowNanos));
+            return false;
+        }
+
+        sender.lastSeenNanos = nowNanos;
+
+        if (sequence < sender.next) {
+            sender.missing.remove(sequence);
+            return false;
+        }
+
+        if (sequence - sender.next > MAX_GAP) {
+            sender.missing.clear();
+            sender.next = sequence + 1;
+            return true;
+        }
+
+        for (long missing = sender.next; missing < sequence; missing++) {
+            sender.missing.put(missing, nowNanos);
+        }
+
+        sender.next = sequence + 1;
+        return false;
+    }
+
+    /**
+     * Checks for gaps that stayed open longer than the reorder window, and forgets senders gone idle.
+     *
+     * @return `true` if messages were lost, so that the cache must be cleared.
+     */
+    boolean hasExpiredGap(long nowNanos) {
+        boolean expired = false;
+        final Iterator<Sender> iterator = senders.values().iterator();
+
+        while (iterator.hasNext()) {
+            final Sender sender = iterator.next();
+
+            for (long since : sender.missing.values()) {
+                if (nowNanos - since > reorderWindowNanos) {
+                    sender.missing.clear();
+                    expired = true;
+                    break;
+                }
+            }
+
+            if (sender.missing.isEmpty() && nowNanos - sender.lastSeenNanos > idleTimeoutNanos) {
+                iterator.remove();
+            }
+        }
+
+        return expired;
+    }
+
+    /**
+     * Forgets every sender, after the cache was cleared for another reason.
+     */
+    void reset() {
+        senders.clear();
+    }
+
+    private static final class Sender {
+        private final Map<Long, Long> missing = new HashMap<>();
+        private long next;
+        private long lastSeenNanos;
+
+        private Sender(long next, long lastSeenNanos) {
+            this.next = next;
+            this.lastSeenNanos = lastSeenNanos;
+        }
+    }
+}
@@ -1,13 +1,24 @@
 package com.rent.customer.controller;
 
+import com.rent.customer.admission.Admission;
+import com.rent.customer.admission.EndpointClass;
+import com.rent.customer.cache.CustomerResponseCache;
+import com.rent.customer.exception.InvalidIdempotencyKeyException;
+import com.rent.customer.model.IdempotencyRecord;
+import com.rent.customer.model.dto.BulkDeleteRequestDTO;
+import com.rent.customer.model.dto.BulkDeleteResultDTO;
 import com.rent.customer.model.dto.CustomerDTO;
+import com.rent.customer.service.CustomerPurgeService;
 import com.rent.customer.service.CustomerService;
+import com.rent.customer.service.IdempotencyService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -24,14 +35,24 @@ public class CustomerController {
     private static final Logger logger = LoggerFactory.getLogger(CustomerController.class);
 
     private final CustomerService customerService;
+    private final IdempotencyService idempotencyService;
+    private final CustomerPurgeService customerPurgeService;
+    private final CustomerResponseCache customerResponseCache;
 
     /**
-     * Constructs a new `CustomerController` with the specified `CustomerService`.
+     * Constructs a new `CustomerController` with the specified services.
      *
-     * @param customerService the service responsible for handling customer-related business logic.
+     * @param customerService       the service responsible for handling customer-related business logic.
+     * @param idempotencyService    the service deduplicating retried creations.
+     * @param customerPurgeService  the service deleting customers in bulk.
+     * @param customerResponseCache the cache of encoded customer responses.
      */
-    public CustomerController(CustomerService customerService) {
+    public CustomerController(CustomerService customerService, IdempotencyService idempotencyService,
+                              CustomerPurgeService customerPurgeService, CustomerResponseCache customerResponseCache) {
         this.customerService = customerService;
+        this.idempotencyService = idempotencyService;
+        this.customerPurgeService = customerPurgeService;
+        this.customerResponseCache = customerResponseCache;
     }
 
     /**
@@ -40,6 +61,7 @@ public class CustomerController {
      * @return a `ResponseEntity` containing a list of `CustomerDTO` objects and an HTTP status of `FOUND` (302).
      */
     @GetMapping
+    @Admission(EndpointClass.EXPENSIVE)
     public ResponseEntity<List<CustomerDTO>> findAll() {
         logger.debug("Find all customers");
 
@@ -49,29 +71,54 @@ public class CustomerController {
 
     /**
      * Retrieves a specific customer by their unique identifier.
+     * The JSON body comes pre-encoded from the `CustomerResponseCache` and is written as is. A request whose
+     * `If-None-Match` header matches the ETag is answered with `NOT_MODIFIED` (304) and no body.
      *
      * @param customerId the unique identifier of the customer to retrieve.
-     * @return a `ResponseEntity` containing the `CustomerDTO` object and an HTTP status of `FOUND` (302).
+     * @param request    the current request, used to evaluate `If-None-Match`.
+     * @return a `ResponseEntity` containing the customer as JSON and an HTTP status of `FOUND` (302),
+     *         or `null` when the response was completed as `NOT_MODIFIED`.
      */
     @GetMapping("/{customerId}")
-    public ResponseEntity<CustomerDTO> findById(@PathVariable("customerId") UUID customerId) {
+    public ResponseEntity<byte[]> findById(@PathVariable("customerId") UUID customerId, WebRequest request) {
         logger.debug("Find customer by id: {}", customerId);
 
-        final CustomerDTO customerDTO = customerService.findById(customerId);
-        return ResponseEntity.status(HttpStatus.FOUND).body(customerDTO);
+        final CustomerResponseCache.CachedResponse response =
+                customerResponseCache.get(customerId, customerService::findById);
+
+        if (request.checkNotModified(response.getETag())) {
+            return null;
+        }
+
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .eTag(response.getETag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(response.getBody());
     }
 
     /**
      * Creates a new customer record.
+     * When an `Idempotency-Key` header is present, retries with the same key replay the original response
+     * instead of creating the customer again.
      *
-     * @param customerDTO the `CustomerDTO` object containing the customer data to be created.
+     * @param customerDTO    the `CustomerDTO` object containing the customer data to be created.
+     * @param idempotencyKey the optional idempotency key sent by the client.
      * @return a `ResponseEntity` containing the unique identifier of the newly created customer and an HTTP status of `CREATED` (201).
+     * @throws InvalidIdempotencyKeyException if the idempotency key is empty or longer than the store accepts.
      */
     @PostMapping
-    public ResponseEntity<UUID> create(@RequestBody @Valid CustomerDTO customerDTO) {
+    public ResponseEntity<UUID> create(@RequestBody @Valid CustomerDTO customerDTO,
+                                       @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         logger.debug("Create customer: {}", customerDTO);
 
-        final UUID customerId = customerService.create(customerDTO);
+        if (idempotencyKey != null
+                && (idempotencyKey.isEmpty() || idempotencyKey.length() > IdempotencyRecord.MAX_KEY_LENGTH)) {
+            throw new InvalidIdempotencyKeyException(IdempotencyRecord.MAX_KEY_LENGTH);
+        }
+
+        final UUID customerId = idempotencyKey == null
+                ? customerService.create(customerDTO)
+                : idempotencyService.execute(idempotencyKey, customerDTO, () -> customerService.create(customerDTO));
         return ResponseEntity.status(HttpStatus.CREATED).body(customerId);
     }
 
@@ -98,4 +145,20 @@ public class CustomerController {
         customerService.delete(customerId);
         return ResponseEntity.status(HttpStatus.OK).build();
     }
+
+    /**
+     * Deletes customers in bulk, selected by a list of unique identifiers or by email domain.
+     *
+     * @param request the `BulkDeleteRequestDTO` object selecting the customers to delete.
+     * @return a `ResponseEntity` containing the number of deleted customers and the identifiers that were not found,
+     *         with an HTTP status of `OK` (200).
+     */
+    @DeleteMapping
+    @Admission(EndpointClass.EXPENSIVE)
+    public ResponseEntity<BulkDeleteResultDTO> deleteAll(@RequestBody @Valid BulkDeleteRequestDTO request) {
+        logger.debug("Bulk delete customers");
+
+        final BulkDeleteResultDTO result = customerPurgeService.delete(request);
+        return ResponseEntity.status(HttpStatus.OK).body(result);
+    }
 }
\ No newline at end of file
@@ -1,19 +1,35 @@
 package com.rent.customer.exception;
 
 /**
- * A static error message template indicating that a customer with the specified email already exists.
+ * The `CustomerAlreadyExistsException` class is a custom runtime exception that is thrown when a customer
+ * with the specified email already exists. Duplicate registrations are an expected outcome, so the exception
+ * does not capture a stack trace and only builds its message when it is requested.
  */
 public class CustomerAlreadyExistsException extends RuntimeException {
 
-    private static final String USER_ALREADY_EXISTS = "Customer with e-mail: %s already exists";
+    private final String email;
 
     /**
-     * Constructs a new `CustomerAlreadyExistsException` with a formatted error message that includes the
-     * specified email address.
+     * Constructs a new `CustomerAlreadyExistsException` for the specified email address.
      *
      * @param email the email address of the customer that already exists.
      */
     public CustomerAlreadyExistsException(String email) {
-        super(String.format(USER_ALREADY_EXISTS, email));
+        super(null, null, false, false);
+        this.email = email;
+    }
+
+    /**
+     * Retrieves the email address of the customer that already exists.
+     *
+     * @return the email address of the customer.
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Customer with e-mail: " + email + " already exists";
     }
 }
@@ -6,18 +6,34 @@ import java.util.UUID;
  * The `CustomerNotFoundException` class is a custom runtime exception that is thrown when a customer
  * with a specified ID is not found in the system. This exception is typically used in service or
  * controller layers to indicate that a requested customer resource does not exist.
+ * Looking up unknown ids is an expected outcome rather than a programming error, so the exception
+ * does not capture a stack trace and only builds its message when it is requested.
  */
 public class CustomerNotFoundException extends RuntimeException {
 
-    private static final String USER_NOT_FOUND = "Customer with id %s not found";
+    private final UUID id;
 
     /**
-     * Constructs a new `CustomerNotFoundException` with a formatted error message that includes the
-     * specified customer ID.
+     * Constructs a new `CustomerNotFoundException` for the specified customer ID.
      *
      * @param id the unique identifier (UUID) of the customer that was not found.
      */
     public CustomerNotFoundException(UUID id) {
-        super(String.format(USER_NOT_FOUND, id));
+        super(null, null, false, false);
+        this.id = id;
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the unique identifier of the customer that was not found.
+     *
+     * @return the unique identifier (UUID) of the customer.
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Customer with id " + id + " not found";
+    }
+}
@@ -0,0 +1,20 @@
+package com.rent.customer.exception;
+
+/**
+ * The `IdempotencyKeyReusedException` class is a custom runtime exception that is thrown when a client sends
+ * an `Idempotency-Key` that was already used with a different request payload.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    private static final String KEY_REUSED = "Idempotency key %s was already used with a different request";
+
+    /**
+     * Constructs a new `IdempotencyKeyReusedException` with a formatted error message that includes the
+     * specified idempotency key.
+     *
+     * @param key the idempotency key that was reused.
+     */
+    public IdempotencyKeyReusedException(String key) {
+        super(String.format(KEY_REUSED, key));
+    }
+}
@@ -0,0 +1,21 @@
+package com.rent.customer.exception;
+
+/**
+ * The `IdempotentRequestInProgressException` class is a custom runtime exception that is thrown when a request
+ * arrives with an `Idempotency-Key` whose original request is still running, on another instance or for longer
+ * than the in-flight timeout. The client is expected to retry later, so the exception does not capture a stack
+ * trace.
+ */
+public class IdempotentRequestInProgressException extends RuntimeException {
+
+    private static final String IN_PROGRESS = "A request with idempotency key %s is still in progress";
+
+    /**
+     * Constructs a new `IdempotentRequestInProgressException` for the specified idempotency key.
+     *
+     * @param key the idempotency key of the running request.
+     */
+    public IdempotentRequestInProgressException(String key) {
+        super(String.format(IN_PROGRESS, key), null, false, false);
+    }
+}
@@ -0,0 +1,20 @@
+package com.rent.customer.exception;
+
+/**
+ * The `InvalidIdempotencyKeyException` class is a custom runtime exception that is thrown when a client sends
+ * an `Idempotency-Key` that cannot be stored, such as one longer than the `T_IDEMPOTENCY_KEY` column.
+ */
+public class InvalidIdempotencyKeyException extends RuntimeException {
+
+    private static final String INVALID_KEY = "Idempotency-Key must be between 1 and %d characters long";
+
+    /**
+     * Constructs a new `InvalidIdempotencyKeyException` with a formatted error message that includes the
+     * maximum key length. The key itself is left out, since it may be arbitrarily long.
+     *
+     * @param maxLength the maximum length of an idempotency key.
+     */
+    public InvalidIdempotencyKeyException(int maxLength) {
+        super(String.format(INVALID_KEY, maxLength));
+    }
+}
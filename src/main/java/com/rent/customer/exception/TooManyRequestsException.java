@@ -0,0 +1,31 @@
+package com.rent.customer.exception;
+
+/**
+ * The `TooManyRequestsException` class is a custom runtime exception that is thrown when a request is shed by
+ * admission control, either because its client exceeded its rate limit or because the endpoint is saturated.
+ * It is thrown most often when the service is overloaded, so it does not capture a stack trace.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs a new `TooManyRequestsException` with the specified message and retry delay.
+     *
+     * @param message           the reason the request was rejected.
+     * @param retryAfterSeconds the number of seconds the client should wait before retrying.
+     */
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Retrieves the number of seconds the client should wait before retrying.
+     *
+     * @return the retry delay in seconds.
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,19 @@
+package com.rent.customer.exception;
+
+/**
+ * The `WriteAheadLogFullException` class is a custom runtime exception that is thrown when a customer cannot be
+ * written behind because the write-ahead log stayed full for longer than `customer.write-behind.wal-full-timeout`,
+ * typically while the database is unavailable. The client is expected to retry later, so the exception does not
+ * capture a stack trace.
+ */
+public class WriteAheadLogFullException extends RuntimeException {
+
+    private static final String FULL = "The write-ahead log is full; retry later";
+
+    /**
+     * Constructs a new `WriteAheadLogFullException`.
+     */
+    public WriteAheadLogFullException() {
+        super(FULL, null, false, false);
+    }
+}
@@ -2,44 +2,154 @@ package com.rent.customer.handler;
 
 import com.rent.customer.exception.CustomerAlreadyExistsException;
 import com.rent.customer.exception.CustomerNotFoundException;
+import com.rent.customer.exception.IdempotencyKeyReusedException;
+import com.rent.customer.exception.IdempotentRequestInProgressException;
+import com.rent.customer.exception.InvalidIdempotencyKeyException;
+import com.rent.customer.exception.TooManyRequestsException;
+import com.rent.customer.exception.WriteAheadLogFullException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * The `GlobalExceptionHandler` class is a global exception handler for the application.
  * It handles specific exceptions thrown by controllers and returns appropriate HTTP responses
  * with error details. This class is annotated with `@RestControllerAdvice`, making it a
  * centralized component for exception handling across all controllers.
+ * Error bodies are RFC 7807 problem details, served as `application/problem+json`.
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final URI CUSTOMER_NOT_FOUND = URI.create("urn:problem-type:customer:not-found");
+    private static final String CUSTOMER_NOT_FOUND_DETAIL = "Customer not found";
+    private static final URI CUSTOMER_ALREADY_EXISTS = URI.create("urn:problem-type:customer:already-exists");
+    private static final URI IDEMPOTENCY_KEY_REUSED = URI.create("urn:problem-type:customer:idempotency-key-reused");
+    private static final URI INVALID_IDEMPOTENCY_KEY = URI.create("urn:problem-type:customer:invalid-idempotency-key");
+    private static final URI IDEMPOTENT_REQUEST_IN_PROGRESS =
+            URI.create("urn:problem-type:customer:idempotent-request-in-progress");
+    private static final URI CONCURRENT_MODIFICATION = URI.create("urn:problem-type:customer:concurrent-modification");
+    private static final URI TOO_MANY_REQUESTS = URI.create("urn:problem-type:customer:too-many-requests");
+    private static final URI WRITE_AHEAD_LOG_FULL = URI.create("urn:problem-type:customer:write-ahead-log-full");
+    private static final URI INVALID_REQUEST = URI.create("urn:problem-type:customer:invalid-request");
+
     /**
-     * Handles `CustomerNotFoundException` and returns a `404 Not Found` response with the exception message.
+     * Handles `CustomerNotFoundException` and returns a `404 Not Found` problem detail.
      *
      * @param exception the `CustomerNotFoundException` instance containing the error details.
-     * @return a `ResponseEntity` with a `404 Not Found` status and the exception message as the response body.
+     * @return a `ResponseEntity` with a `404 Not Found` status and a problem detail including the customer id.
      */
     @ExceptionHandler(CustomerNotFoundException.class)
-    public ResponseEntity<String> handleCustomerNotFound(final CustomerNotFoundException exception) {
+    public ResponseEntity<ProblemDetail> handleCustomerNotFound(final CustomerNotFoundException exception) {
+        // A fixed detail, so that an expected 404 does not build the exception message
+        final ProblemDetail problem = problem(HttpStatus.NOT_FOUND, CUSTOMER_NOT_FOUND, CUSTOMER_NOT_FOUND_DETAIL);
+
+        problem.setProperty("customerId", exception.getId());
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                .body(exception.getMessage());
+                .body(problem);
     }
 
     /**
-     * Handles `CustomerAlreadyExistsException` and returns a `208 Already Reported` response with the exception message.
+     * Handles `CustomerAlreadyExistsException` and returns a `409 Conflict` problem detail.
      *
      * @param exception the `CustomerAlreadyExistsException` instance containing the error details.
-     * @return a `ResponseEntity` with a `208 Already Reported` status and the exception message as the response body.
+     * @return a `ResponseEntity` with a `409 Conflict` status and a problem detail including the email.
      */
     @ExceptionHandler(CustomerAlreadyExistsException.class)
-    public ResponseEntity<String> handleCustomerAlreadyExists(final CustomerAlreadyExistsException exception) {
-        return ResponseEntity.status(HttpStatus.ALREADY_REPORTED)
-                .body(exception.getMessage());
+    public ResponseEntity<ProblemDetail> handleCustomerAlreadyExists(final CustomerAlreadyExistsException exception) {
+        final ProblemDetail problem = problem(HttpStatus.CONFLICT, CUSTOMER_ALREADY_EXISTS, exception.getMessage());
+
+        problem.setProperty("email", exception.getEmail());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(problem);
+    }
+
+    /**
+     * Handles `IdempotencyKeyReusedException` and returns a `422 Unprocessable Entity` problem detail.
+     *
+     * @param exception the `IdempotencyKeyReusedException` instance containing the error details.
+     * @return a `ResponseEntity` with a `422 Unprocessable Entity` status and a problem detail.
+     */
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ProblemDetail> handleIdempotencyKeyReused(final IdempotencyKeyReusedException exception) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(problem(HttpStatus.UNPROCESSABLE_ENTITY, IDEMPOTENCY_KEY_REUSED, exception.getMessage()));
+    }
+
+    /**
+     * Handles `InvalidIdempotencyKeyException` and returns a `400 Bad Request` problem detail.
+     *
+     * @param exception the `InvalidIdempotencyKeyException` instance containing the error details.
+     * @return a `ResponseEntity` with a `400 Bad Request` status and a problem detail.
+     */
+    @ExceptionHandler(InvalidIdempotencyKeyException.class)
+    public ResponseEntity<ProblemDetail> handleInvalidIdempotencyKey(final InvalidIdempotencyKeyException exception) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(problem(HttpStatus.BAD_REQUEST, INVALID_IDEMPOTENCY_KEY, exception.getMessage()));
+    }
+
+    /**
+     * Handles `IdempotentRequestInProgressException` and returns a `409 Conflict` problem detail.
+     *
+     * @param exception the `IdempotentRequestInProgressException` instance containing the error details.
+     * @return a `ResponseEntity` with a `409 Conflict` status and a problem detail.
+     */
+    @ExceptionHandler(IdempotentRequestInProgressException.class)
+    public ResponseEntity<ProblemDetail> handleIdempotentRequestInProgress(
+            final IdempotentRequestInProgressException exception) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(problem(HttpStatus.CONFLICT, IDEMPOTENT_REQUEST_IN_PROGRESS, exception.getMessage()));
+    }
+
+    /**
+     * Handles `OptimisticLockingFailureException`, raised when concurrent writes to the same customer keep winning
+     * over an update or delete, and returns a `409 Conflict` problem detail. The request can be retried as is.
+     *
+     * @param exception the `OptimisticLockingFailureException` instance containing the error details.
+     * @return a `ResponseEntity` with a `409 Conflict` status and a problem detail.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ProblemDetail> handleOptimisticLockingFailure(
+            final OptimisticLockingFailureException exception) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(problem(HttpStatus.CONFLICT, CONCURRENT_MODIFICATION,
+                        "The customer was modified concurrently, retry the request"));
+    }
+
+    /**
+     * Handles `TooManyRequestsException` and returns a `429 Too Many Requests` problem detail with a `Retry-After` header.
+     *
+     * @param exception the `TooManyRequestsException` instance containing the error details.
+     * @return a `ResponseEntity` with a `429 Too Many Requests` status and a problem detail.
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ProblemDetail> handleTooManyRequests(final TooManyRequestsException exception) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body(problem(HttpStatus.TOO_MANY_REQUESTS, TOO_MANY_REQUESTS, exception.getMessage()));
+    }
+
+    /**
+     * Handles `WriteAheadLogFullException` and returns a `503 Service Unavailable` problem detail.
+     *
+     * @param exception the `WriteAheadLogFullException` instance containing the error details.
+     * @return a `ResponseEntity` with a `503 Service Unavailable` status and a problem detail.
+     */
+    @ExceptionHandler(WriteAheadLogFullException.class)
+    public ResponseEntity<ProblemDetail> handleWriteAheadLogFull(final WriteAheadLogFullException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(problem(HttpStatus.SERVICE_UNAVAILABLE, WRITE_AHEAD_LOG_FULL, exception.getMessage()));
     }
 
     /**
@@ -47,25 +157,30 @@ public class GlobalExceptionHandler {
      * This exception is thrown when request validation fails (e.g., due to invalid input data).
      *
      * @param exception the `MethodArgumentNotValidException` instance containing the validation errors.
-     * @return a `ResponseEntity` with a `400 Bad Request` status and a map of field errors in the response body.
+     * @return a `ResponseEntity` with a `400 Bad Request` status and a problem detail with a map of field errors.
      */
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<String> handleMethodArgumentNotValidException(
+    public ResponseEntity<ProblemDetail> handleMethodArgumentNotValidException(
             MethodArgumentNotValidException exception) {
-        final StringBuilder errors = new StringBuilder();
-
-        exception.getBindingResult().getAllErrors()
-                .forEach(error -> {
-                    final String fieldName = ((FieldError) error).getField();
-                    final String errorMessage = error.getDefaultMessage();
-                    errors.append("The field");
-                    errors.append(fieldName);
-                    errors.append(" ");
-                    errors.append(errorMessage);
-                });
+        final List<FieldError> fieldErrors = exception.getBindingResult().getFieldErrors();
+        final Map<String, String> errors = new LinkedHashMap<>(fieldErrors.size() * 2);
+
+        for (FieldError error : fieldErrors) {
+            errors.putIfAbsent(error.getField(), error.getDefaultMessage());
+        }
 
+        final ProblemDetail problem = problem(HttpStatus.BAD_REQUEST, INVALID_REQUEST, "Request validation failed");
+
+        problem.setProperty("errors", errors);
         return ResponseEntity
                 .status(HttpStatus.BAD_REQUEST)
-                .body(errors.toString());
+                .body(problem);
+    }
+
+    private static ProblemDetail problem(HttpStatus status, URI type, String detail) {
+        final ProblemDetail problem = ProblemDetail.forStatusAndDetail(status, detail);
+
+        problem.setType(type);
+        return problem;
     }
 }
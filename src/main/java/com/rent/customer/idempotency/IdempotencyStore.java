@@ -0,0 +1,56 @@
+package com.rent.customer.idempotency;
+
+import com.rent.customer.model.IdempotencyRecord;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The `IdempotencyStore` interface abstracts where idempotency keys are reserved and completed responses are kept.
+ * Implementations must be bounded and must stop returning records once their time-to-live has elapsed.
+ * <p>
+ * A key is reserved before its request runs, so that a single reservation succeeds however many instances receive
+ * the key at once. A reservation still running after the in-flight timeout is assumed to be abandoned (its instance
+ * crashed) and may be taken over.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Retrieves the record stored for the specified key.
+     *
+     * @param key the idempotency key sent by the client.
+     * @return an `Optional` containing the record, completed or not, if present and not expired, or an empty
+     * `Optional` otherwise.
+     */
+    Optional<IdempotencyRecord> find(String key);
+
+    /**
+     * Atomically reserves the specified key for a request about to run.
+     *
+     * @param key           the idempotency key sent by the client.
+     * @param requestDigest the digest of the request payload.
+     * @return `true` if the key was reserved, `false` if it is completed or reserved by a request still running.
+     */
+    boolean reserve(String key, String requestDigest);
+
+    /**
+     * Records the outcome of a request that reserved its key. Nothing is recorded unless the key is still reserved
+     * for the same payload and not completed, so that a request whose reservation was taken over cannot overwrite
+     * the outcome of the request that took it.
+     *
+     * @param key           the reserved idempotency key.
+     * @param requestDigest the digest of the request payload the key was reserved for.
+     * @param customerId    the unique identifier of the created customer.
+     * @return `true` if the outcome was recorded.
+     */
+    boolean complete(String key, String requestDigest, UUID customerId);
+
+    /**
+     * Releases the reservation of a request that failed, so that it can be retried with the same key. As with
+     * `complete`, only a reservation for the same payload that did not complete is released.
+     *
+     * @param key           the reserved idempotency key.
+     * @param requestDigest the digest of the request payload the key was reserved for.
+     */
+    void release(String key, String requestDigest);
+}
@@ -0,0 +1,127 @@
+package com.rent.customer.idempotency;
+
+import com.rent.customer.model.IdempotencyRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The `InMemoryIdempotencyStore` class keeps idempotent responses in a bounded, insertion-ordered map.
+ * Because every record shares the same time-to-live, the eldest entries are always the first to expire,
+ * so both the size bound and the expiry are enforced by trimming the head of the map.
+ * <p>
+ * The size bound only evicts completed records: a reservation whose request is still running is never evicted,
+ * since a duplicate would otherwise run the request a second time. Reservations are bounded by the requests running
+ * on this instance, so they can only push the map past `max-entries` by that many.
+ * This is the default store, used unless `customer.idempotency.store` is set to `jpa`.
+ */
+@Component
+@ConditionalOnProperty(name = "customer.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Map<String, IdempotencyRecord> records = new LinkedHashMap<>();
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Duration inFlightTimeout;
+    private final Clock clock;
+
+    /**
+     * Constructs a new `InMemoryIdempotencyStore` with the configured bounds.
+     *
+     * @param maxEntries      the maximum number of records kept in memory.
+     * @param ttl             how long a record is replayed after its key was reserved.
+     * @param inFlightTimeout how long a reservation is held before it is considered abandoned.
+     */
+    @Autowired
+    public InMemoryIdempotencyStore(@Value("${customer.idempotency.max-entries:10000}") int maxEntries,
+                                    @Value("${customer.idempotency.ttl:24h}") Duration ttl,
+                                    @Value("${customer.idempotency.in-flight-timeout:30s}") Duration inFlightTimeout) {
+        this(maxEntries, ttl, inFlightTimeout, Clock.systemUTC());
+    }
+
+    InMemoryIdempotencyStore(int maxEntries, Duration ttl, Duration inFlightTimeout, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.inFlightTimeout = inFlightTimeout;
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized Optional<IdempotencyRecord> find(String key) {
+        evictExpired();
+        return Optional.ofNullable(records.get(key));
+    }
+
+    @Override
+    public synchronized boolean reserve(String key, String requestDigest) {
+        evictExpired();
+
+        final Instant now = clock.instant();
+        final IdempotencyRecord existing = records.get(key);
+
+        if (existing != null && (existing.isCompleted() || !existing.getCreatedAt().isBefore(now.minus(inFlightTimeout)))) {
+            return false;
+        }
+
+        // Removed first, so that the map stays ordered by creation instant
+        records.remove(key);
+        records.put(key, new IdempotencyRecord(key, requestDigest, null, now));
+        evictCompleted();
+        return true;
+    }
+
+    @Override
+    public synchronized boolean complete(String key, String requestDigest, UUID customerId) {
+        final IdempotencyRecord record = records.get(key);
+
+        if (!isReserved(record, requestDigest)) {
+            return false;
+        }
+
+        record.setCustomerId(customerId);
+        return true;
+    }
+
+    @Override
+    public synchronized void release(String key, String requestDigest) {
+        if (isReserved(records.get(key), requestDigest)) {
+            records.remove(key);
+        }
+    }
+
+    private static boolean isReserved(IdempotencyRecord record, String requestDigest) {
+        return record != null && !record.isCompleted() && record.getRequestDigest().equals(requestDigest);
+    }
+
+    // Evicts the eldest completed records beyond the size bound, skipping reservations still running
+    private void evictCompleted() {
+        final Iterator<IdempotencyRecord> iterator = records.values().iterator();
+        int excess = records.size() - maxEntries;
+
+        while (excess > 0 && iterator.hasNext()) {
+            if (iterator.next().isCompleted()) {
+                iterator.remove();
+                excess--;
+            }
+        }
+    }
+
+    private void evictExpired() {
+        final Instant cutoff = clock.instant().minus(ttl);
+        final Iterator<IdempotencyRecord> iterator = records.values().iterator();
+
+        while (iterator.hasNext() && iterator.next().getCreatedAt().isBefore(cutoff)) {
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.rent.customer.idempotency;
+
+import com.rent.customer.model.IdempotencyRecord;
+import com.rent.customer.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The `JpaIdempotencyStore` class keeps idempotent responses in the `T_IDEMPOTENCY_KEY` table, so that
+ * retries are deduplicated across application instances and restarts. Keys are reserved with an insert that
+ * does nothing on conflict, so that two instances receiving the same key at once cannot both run the request.
+ * Expired records are ignored on read and removed in the background. Enabled by setting
+ * `customer.idempotency.store` to `jpa`.
+ */
+@Component
+@ConditionalOnProperty(name = "customer.idempotency.store", havingValue = "jpa")
+public class JpaIdempotencyStore implements IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JpaIdempotencyStore.class);
+
+    private final IdempotencyRecordRepository repository;
+    private final Duration ttl;
+    private final Duration inFlightTimeout;
+
+    /**
+     * Constructs a new `JpaIdempotencyStore` with the specified repository and timeouts.
+     *
+     * @param repository      the repository responsible for data access operations on idempotency records.
+     * @param ttl             how long a record is replayed after its key was reserved.
+     * @param inFlightTimeout how long a reservation is held before it is considered abandoned.
+     */
+    public JpaIdempotencyStore(IdempotencyRecordRepository repository,
+                               @Value("${customer.idempotency.ttl:24h}") Duration ttl,
+                               @Value("${customer.idempotency.in-flight-timeout:30s}") Duration inFlightTimeout) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.inFlightTimeout = inFlightTimeout;
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> find(String key) {
+        final Instant cutoff = Instant.now().minus(ttl);
+
+        return repository.findById(key)
+                .filter(record -> !record.getCreatedAt().isBefore(cutoff));
+    }
+
+    @Override
+    public boolean reserve(String key, String requestDigest) {
+        final Instant now = Instant.now();
+
+        return repository.insertIfAbsent(key, requestDigest, now) == 1
+                || repository.takeOver(key, requestDigest, now, now.minus(inFlightTimeout), now.minus(ttl)) == 1;
+    }
+
+    @Override
+    public boolean complete(String key, String requestDigest, UUID customerId) {
+        return repository.complete(key, requestDigest, customerId) == 1;
+    }
+
+    @Override
+    public void release(String key, String requestDigest) {
+        repository.release(key, requestDigest);
+    }
+
+    /**
+     * Removes expired records so that the table stays bounded by the request rate times the time-to-live.
+     */
+    @Scheduled(fixedDelayString = "${customer.idempotency.eviction-interval:60000}")
+    public void evictExpired() {
+        final int deleted = repository.deleteExpired(Instant.now().minus(ttl));
+
+        logger.debug("Evicted {} expired idempotency records", deleted);
+    }
+}
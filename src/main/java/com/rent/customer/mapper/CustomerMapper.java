@@ -25,6 +25,7 @@ public class CustomerMapper {
         customerDTO.setFirstName(customer.getFirstName());
         customerDTO.setLastName(customer.getLastName());
         customerDTO.setEmail(customer.getEmail());
+        customerDTO.setVersion(customer.getVersion());
 
         return customerDTO;
     }
@@ -5,18 +5,25 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
+import java.time.Instant;
 import java.util.UUID;
 
 /**
  * The `Customer` class is an entity that represents a customer in the database.
  * It is mapped to the `T_CUSTOMER` table and contains fields for customer details such as
  * ID, first name, last name, and email. This class is used by JPA (Java Persistence API)
- * to persist and retrieve customer data.
+ * to persist and retrieve customer data. `UPDATED_AT` records the last write, so that the most recently active
+ * customers can be found for cache warm-up. `VERSION` is incremented on every update; it orders cache
+ * invalidations across instances.
  */
 @Entity
-@Table(name = "T_CUSTOMER")
+@Table(name = "T_CUSTOMER", indexes = @Index(name = "T_CUSTOMER_UPDATED_AT_IDX", columnList = "UPDATED_AT, CUSTOMER_ID"))
 public class Customer {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -32,6 +39,13 @@ public class Customer {
     @Column(name = "EMAIL")
     private String email;
 
+    @Column(name = "UPDATED_AT")
+    private Instant updatedAt;
+
+    @Version
+    @Column(name = "VERSION", nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     /**
      * Retrieves the unique identifier of the customer.
      *
@@ -103,4 +117,46 @@ public class Customer {
     public void setEmail(String email) {
         this.email = email;
     }
+
+    /**
+     * Retrieves the time of the last write of the customer.
+     *
+     * @return the time of the last insert or update, or `null` for customers written before it was recorded.
+     */
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Sets the time of the last write of the customer.
+     *
+     * @param updatedAt the time of the last insert or update.
+     */
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Retrieves the version of the customer.
+     *
+     * @return the optimistic-locking version, incremented on every update.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the customer.
+     *
+     * @param version the optimistic-locking version.
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        this.updatedAt = Instant.now();
+    }
 }
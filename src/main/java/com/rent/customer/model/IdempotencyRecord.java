@@ -0,0 +1,141 @@
+package com.rent.customer.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The `IdempotencyRecord` class is an entity that stores the outcome of a request made with an
+ * `Idempotency-Key` header. It is mapped to the `T_IDEMPOTENCY_KEY` table and allows retried requests
+ * to be answered with the original response instead of being executed again.
+ * A record is inserted when the key is reserved, before the request runs, and has no customer until it completes.
+ */
+@Entity
+@Table(name = "T_IDEMPOTENCY_KEY")
+public class IdempotencyRecord {
+
+    /**
+     * The maximum length of an idempotency key, the size of the `IDEMPOTENCY_KEY` column.
+     */
+    public static final int MAX_KEY_LENGTH = 255;
+
+    @Id
+    @Column(name = "IDEMPOTENCY_KEY", nullable = false, length = MAX_KEY_LENGTH)
+    private String key;
+
+    @Column(name = "REQUEST_DIGEST", nullable = false, length = 64)
+    private String requestDigest;
+
+    @Column(name = "CUSTOMER_ID")
+    private UUID customerId;
+
+    @Column(name = "CREATED_AT", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public IdempotencyRecord() {
+    }
+
+    /**
+     * Constructs a new `IdempotencyRecord` with the specified values.
+     *
+     * @param key           the idempotency key sent by the client.
+     * @param requestDigest the SHA-256 digest of the request payload the key was first used with.
+     * @param customerId    the unique identifier of the customer created by the original request, or `null` while
+     *                      it is running.
+     * @param createdAt     the instant the key was reserved.
+     */
+    public IdempotencyRecord(String key, String requestDigest, UUID customerId, Instant createdAt) {
+        this.key = key;
+        this.requestDigest = requestDigest;
+        this.customerId = customerId;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Retrieves the idempotency key.
+     *
+     * @return the idempotency key sent by the client.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Sets the idempotency key.
+     *
+     * @param key the idempotency key sent by the client.
+     */
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Retrieves the digest of the request payload the key was first used with.
+     *
+     * @return the hex-encoded SHA-256 digest of the request.
+     */
+    public String getRequestDigest() {
+        return requestDigest;
+    }
+
+    /**
+     * Sets the digest of the request payload the key was first used with.
+     *
+     * @param requestDigest the hex-encoded SHA-256 digest of the request.
+     */
+    public void setRequestDigest(String requestDigest) {
+        this.requestDigest = requestDigest;
+    }
+
+    /**
+     * Checks whether the original request has completed.
+     *
+     * @return `true` if the created customer is known, `false` while the request is running.
+     */
+    public boolean isCompleted() {
+        return customerId != null;
+    }
+
+    /**
+     * Retrieves the unique identifier of the customer created by the original request.
+     *
+     * @return the unique identifier (UUID) of the created customer, or `null` while the request is running.
+     */
+    public UUID getCustomerId() {
+        return customerId;
+    }
+
+    /**
+     * Sets the unique identifier of the customer created by the original request.
+     *
+     * @param customerId the unique identifier (UUID) of the created customer.
+     */
+    public void setCustomerId(UUID customerId) {
+        this.customerId = customerId;
+    }
+
+    /**
+     * Retrieves the instant the key was reserved.
+     *
+     * @return the creation instant of the record.
+     */
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Sets the instant the key was reserved.
+     *
+     * @param createdAt the creation instant of the record.
+     */
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,73 @@
+package com.rent.customer.model.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The `BulkDeleteRequestDTO` class is a Data Transfer Object (DTO) that selects the customers to delete in bulk.
+ * Customers are selected either by a list of unique identifiers or by the domain of their email address;
+ * exactly one of the two must be given. At most `MAX_IDS` identifiers are accepted per request.
+ */
+public class BulkDeleteRequestDTO {
+
+    /**
+     * The maximum number of identifiers accepted in one request.
+     */
+    public static final int MAX_IDS = 10_000;
+
+    @Size(max = MAX_IDS, message = "at most " + MAX_IDS + " ids may be deleted per request")
+    private List<UUID> ids;
+
+    @Pattern(regexp = "[A-Za-z0-9.-]+")
+    private String emailDomain;
+
+    /**
+     * Retrieves the unique identifiers of the customers to delete.
+     *
+     * @return the list of customer identifiers, or `null` when deleting by email domain.
+     */
+    public List<UUID> getIds() {
+        return ids;
+    }
+
+    /**
+     * Sets the unique identifiers of the customers to delete.
+     *
+     * @param ids the list of customer identifiers.
+     */
+    public void setIds(List<UUID> ids) {
+        this.ids = ids;
+    }
+
+    /**
+     * Retrieves the email domain of the customers to delete.
+     *
+     * @return the email domain (the part after `@`), or `null` when deleting by identifiers.
+     */
+    public String getEmailDomain() {
+        return emailDomain;
+    }
+
+    /**
+     * Sets the email domain of the customers to delete.
+     *
+     * @param emailDomain the email domain (the part after `@`).
+     */
+    public void setEmailDomain(String emailDomain) {
+        this.emailDomain = emailDomain;
+    }
+
+    /**
+     * Checks that exactly one selection criterion is given.
+     *
+     * @return `true` if either the identifiers or the email domain is set, but not both.
+     */
+    @AssertTrue(message = "exactly one of ids or emailDomain must be given")
+    public boolean isSelectionValid() {
+        return (ids != null && !ids.isEmpty()) != (emailDomain != null && !emailDomain.isEmpty());
+    }
+}
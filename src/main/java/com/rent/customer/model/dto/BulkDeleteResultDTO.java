@@ -0,0 +1,59 @@
+package com.rent.customer.model.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The `BulkDeleteResultDTO` class is a Data Transfer Object (DTO) that reports the outcome of a bulk delete.
+ */
+public class BulkDeleteResultDTO {
+    private long deleted;
+    private List<UUID> missingIds;
+
+    /**
+     * Constructs a new `BulkDeleteResultDTO` with the specified outcome.
+     *
+     * @param deleted    the number of deleted customers.
+     * @param missingIds the requested identifiers that did not match any customer.
+     */
+    public BulkDeleteResultDTO(long deleted, List<UUID> missingIds) {
+        this.deleted = deleted;
+        this.missingIds = missingIds;
+    }
+
+    /**
+     * Retrieves the number of deleted customers.
+     *
+     * @return the number of deleted customers.
+     */
+    public long getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * Sets the number of deleted customers.
+     *
+     * @param deleted the number of deleted customers.
+     */
+    public void setDeleted(long deleted) {
+        this.deleted = deleted;
+    }
+
+    /**
+     * Retrieves the requested identifiers that did not match any customer.
+     *
+     * @return the list of missing identifiers, empty when deleting by email domain.
+     */
+    public List<UUID> getMissingIds() {
+        return missingIds;
+    }
+
+    /**
+     * Sets the requested identifiers that did not match any customer.
+     *
+     * @param missingIds the list of missing identifiers.
+     */
+    public void setMissingIds(List<UUID> missingIds) {
+        this.missingIds = missingIds;
+    }
+}
@@ -1,5 +1,6 @@
 package com.rent.customer.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -28,6 +29,9 @@ public class CustomerDTO {
     @NotBlank
     private String email;
 
+    @JsonIgnore
+    private long version;
+
     /**
      * Retrieves the unique identifier of the customer.
      *
@@ -99,4 +103,22 @@ public class CustomerDTO {
     public void setEmail(String email) {
         this.email = email;
     }
+
+    /**
+     * Retrieves the version of the customer the data was read from. It is not part of the JSON representation.
+     *
+     * @return the optimistic-locking version of the customer.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the customer the data was read from.
+     *
+     * @param version the optimistic-locking version of the customer.
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,136 @@
+package com.rent.customer.repository;
+
+import com.rent.customer.model.Customer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The `CustomerBulkRepository` class runs set-based statements against the `T_CUSTOMER` table with plain JDBC,
+ * for bulk operations where loading every entity through JPA would cost one round trip per row.
+ */
+@Repository
+public class CustomerBulkRepository {
+
+    private static final String INSERT_IGNORING_EXISTING =
+            "INSERT INTO T_CUSTOMER (CUSTOMER_ID, FIRST_NAME, LAST_NAME, EMAIL, UPDATED_AT, VERSION) "
+                    + "VALUES (?, ?, ?, ?, now(), 0) ON CONFLICT (CUSTOMER_ID) DO NOTHING";
+    private static final String DELETE_BY_IDS =
+            "DELETE FROM T_CUSTOMER WHERE CUSTOMER_ID = ANY(?) RETURNING CUSTOMER_ID";
+    private static final String FIND_IDS_BY_EMAIL_DOMAIN =
+            "SELECT CUSTOMER_ID FROM %s WHERE EMAIL LIKE ? ESCAPE '\\' AND CUSTOMER_ID > ? "
+                    + "ORDER BY CUSTOMER_ID LIMIT ?";
+    private static final String FIND_RECENTLY_UPDATED =
+            "SELECT CUSTOMER_ID, FIRST_NAME, LAST_NAME, EMAIL, UPDATED_AT, VERSION FROM T_CUSTOMER "
+                    + "WHERE UPDATED_AT IS NOT NULL ORDER BY UPDATED_AT DESC, CUSTOMER_ID DESC LIMIT ?";
+    private static final String FIND_RECENTLY_UPDATED_BEFORE =
+            "SELECT CUSTOMER_ID, FIRST_NAME, LAST_NAME, EMAIL, UPDATED_AT, VERSION FROM T_CUSTOMER "
+                    + "WHERE (UPDATED_AT, CUSTOMER_ID) < (?, ?) ORDER BY UPDATED_AT DESC, CUSTOMER_ID DESC LIMIT ?";
+    private static final String CUSTOMER_TABLE = "t_customer";
+
+    // PostgreSQL orders UUIDs as unsigned bytes, so the nil UUID sorts first
+    private static final UUID MIN_UUID = new UUID(0, 0);
+
+    private static final RowMapper<Customer> RECENT_CUSTOMER_ROW_MAPPER = (resultSet, rowNum) -> {
+        final Customer customer = CustomerPartitionRepository.CUSTOMER_ROW_MAPPER.mapRow(resultSet, rowNum);
+
+        customer.setUpdatedAt(resultSet.getObject("UPDATED_AT", OffsetDateTime.class).toInstant());
+        customer.setVersion(resultSet.getLong("VERSION"));
+        return customer;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructs a new `CustomerBulkRepository` with the specified `JdbcTemplate`.
+     *
+     * @param jdbcTemplate the template used to run the statements.
+     */
+    public CustomerBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the specified customers as one JDBC batch, skipping those whose identifier is already stored.
+     *
+     * @param customers the customers to insert, with their identifiers assigned.
+     */
+    public void insertIgnoringExisting(List<Customer> customers) {
+        jdbcTemplate.batchUpdate(INSERT_IGNORING_EXISTING, customers, customers.size(), (statement, customer) -> {
+            statement.setObject(1, customer.getId());
+            statement.setString(2, customer.getFirstName());
+            statement.setString(3, customer.getLastName());
+            statement.setString(4, customer.getEmail());
+        });
+    }
+
+    /**
+     * Deletes the customers with the specified identifiers in a single statement.
+     *
+     * @param ids the identifiers of the customers to delete, at most one chunk (`customer.purge.chunk-size`).
+     * @return the identifiers of the customers that were actually deleted.
+     */
+    public List<UUID> deleteByIds(Collection<UUID> ids) {
+        return jdbcTemplate.query(DELETE_BY_IDS,
+                statement -> statement.setArray(1, statement.getConnection().createArrayOf("uuid", ids.toArray())),
+                (resultSet, rowNum) -> resultSet.getObject(1, UUID.class));
+    }
+
+    /**
+     * Retrieves, in identifier order, the next identifiers of customers whose email belongs to the specified domain.
+     * The leading wildcard of the `LIKE` pattern rules out an index on `EMAIL`, so each page walks the primary key
+     * from `after` and filters every row it reads until `limit` match; paging by identifier only guarantees that
+     * rows already visited, including deleted ones, are not read again.
+     *
+     * @param emailDomain the email domain (the part after `@`).
+     * @param after       the last identifier of the previous page, or `null` for the first page.
+     * @param limit       the maximum number of identifiers to return.
+     * @return the identifiers of the matching customers.
+     */
+    public List<UUID> findIdsByEmailDomain(String emailDomain, UUID after, int limit) {
+        return findIdsByEmailDomain(CUSTOMER_TABLE, emailDomain, after, limit);
+    }
+
+    /**
+     * Same as `findIdsByEmailDomain(String, UUID, int)`, restricted to a single partition of `T_CUSTOMER`.
+     *
+     * @param table       the partition table name, as returned by `CustomerPartitionRepository.findPartitionNames`.
+     * @param emailDomain the email domain (the part after `@`).
+     * @param after       the last identifier of the previous page, or `null` for the first page.
+     * @param limit       the maximum number of identifiers to return.
+     * @return the identifiers of the matching customers stored in the partition.
+     */
+    public List<UUID> findIdsByEmailDomain(String table, String emailDomain, UUID after, int limit) {
+        final String sql = String.format(FIND_IDS_BY_EMAIL_DOMAIN, CustomerPartitionRepository.quote(table));
+
+        return jdbcTemplate.queryForList(sql, UUID.class,
+                "%@" + escapeLike(emailDomain), after != null ? after : MIN_UUID, limit);
+    }
+
+    /**
+     * Retrieves the next page of customers, most recently written first. Paging by `(UPDATED_AT, CUSTOMER_ID)`
+     * keeps each page a range scan of `T_CUSTOMER_UPDATED_AT_IDX`.
+     *
+     * @param after the last customer of the previous page, or `null` for the first page.
+     * @param limit the maximum number of customers to return.
+     * @return the customers written before `after`, newest first; customers without `UPDATED_AT` are skipped.
+     */
+    public List<Customer> findRecentlyUpdated(Customer after, int limit) {
+        if (after == null) {
+            return jdbcTemplate.query(FIND_RECENTLY_UPDATED, RECENT_CUSTOMER_ROW_MAPPER, limit);
+        }
+
+        return jdbcTemplate.query(FIND_RECENTLY_UPDATED_BEFORE, RECENT_CUSTOMER_ROW_MAPPER,
+                after.getUpdatedAt().atOffset(ZoneOffset.UTC), after.getId(), limit);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
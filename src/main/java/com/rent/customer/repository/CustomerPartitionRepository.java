@@ -0,0 +1,84 @@
+package com.rent.customer.repository;
+
+import com.rent.customer.model.Customer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The `CustomerPartitionRepository` class provides partition-aware data access for the hash-partitioned
+ * `T_CUSTOMER` table created by `scripts/partition-customer-table.sql`. It reads individual partitions directly, so
+ * that they can be processed in parallel, and resolves e-mails through the `T_CUSTOMER_EMAIL` registry, so that
+ * e-mail lookups touch a single index instead of one per partition.
+ */
+@Repository
+public class CustomerPartitionRepository {
+
+    private static final String FIND_PARTITIONS =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                    + "WHERE i.inhparent = 't_customer'::regclass ORDER BY c.relname";
+    private static final String FIND_ID_BY_EMAIL = "SELECT CUSTOMER_ID FROM T_CUSTOMER_EMAIL WHERE EMAIL = ?";
+    private static final String FIND_ALL_IN_PARTITION =
+            "SELECT CUSTOMER_ID, FIRST_NAME, LAST_NAME, EMAIL FROM %s";
+
+    static final RowMapper<Customer> CUSTOMER_ROW_MAPPER = (resultSet, rowNum) -> {
+        final Customer customer = new Customer();
+
+        customer.setId(resultSet.getObject("CUSTOMER_ID", UUID.class));
+        customer.setFirstName(resultSet.getString("FIRST_NAME"));
+        customer.setLastName(resultSet.getString("LAST_NAME"));
+        customer.setEmail(resultSet.getString("EMAIL"));
+
+        return customer;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructs a new `CustomerPartitionRepository` with the specified `JdbcTemplate`.
+     *
+     * @param jdbcTemplate the template used to run the statements.
+     */
+    public CustomerPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Retrieves the names of the partitions of `T_CUSTOMER`.
+     *
+     * @return the partition table names, as stored in the catalog.
+     */
+    public List<String> findPartitionNames() {
+        return jdbcTemplate.queryForList(FIND_PARTITIONS, String.class);
+    }
+
+    /**
+     * Retrieves the identifier of the customer registered with the specified e-mail address.
+     *
+     * @param email the email address to look up.
+     * @return an `Optional` containing the customer identifier, or an empty `Optional` if the e-mail is not registered.
+     */
+    public Optional<UUID> findIdByEmail(String email) {
+        return jdbcTemplate.queryForList(FIND_ID_BY_EMAIL, UUID.class, email)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Retrieves every customer stored in the specified partition.
+     *
+     * @param partition the partition table name, as returned by `findPartitionNames`.
+     * @return the customers of the partition.
+     */
+    public List<Customer> findAllInPartition(String partition) {
+        return jdbcTemplate.query(String.format(FIND_ALL_IN_PARTITION, quote(partition)), CUSTOMER_ROW_MAPPER);
+    }
+
+    static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+}
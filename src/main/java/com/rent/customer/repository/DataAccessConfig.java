@@ -0,0 +1,94 @@
+package com.rent.customer.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * The `DataAccessConfig` class sizes the HikariCP pool from `customer.data-access.pool-size`. When it is `0`, the
+ * default, the pool gets `customer.data-access.connections-per-core` connections per available processor instead
+ * of HikariCP's fixed 10. With a partitioned `T_CUSTOMER`, it gets at least one more connection than
+ * `customer.partitioning.parallelism`, so that a full scan cannot take every connection. The pool is fixed-size, as
+ * HikariCP recommends. These are starting points rather than measured optima; `DataAccessBenchmark` compares them
+ * with the defaults on the target hardware.
+ * <p>
+ * An explicit `spring.datasource.hikari.maximum-pool-size` or `minimum-idle` always wins and is left untouched.
+ * <p>
+ * The driver and Hibernate settings of the data-access profile (server-side prepared statements, statement cache,
+ * batched writes) are plain properties in `application.yml`, also driven by `customer.data-access.*`.
+ */
+@Configuration(proxyBeanMethods = false)
+public class DataAccessConfig {
+
+    static final String MAXIMUM_POOL_SIZE = "spring.datasource.hikari.maximum-pool-size";
+    static final String MINIMUM_IDLE = "spring.datasource.hikari.minimum-idle";
+
+    private static final Logger logger = LoggerFactory.getLogger(DataAccessConfig.class);
+
+    /**
+     * Registers the post-processor sizing the pool before its first connection is opened. Static, so that it does
+     * not cause this configuration to be instantiated early.
+     *
+     * @param environment the environment holding `customer.data-access.*`.
+     * @return the pool-sizing post-processor.
+     */
+    @Bean
+    static BeanPostProcessor hikariPoolSizer(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    sizePool(dataSource, environment, Runtime.getRuntime().availableProcessors());
+                    logger.info("Connection pool {} holds up to {} connections", beanName,
+                            dataSource.getMaximumPoolSize());
+                }
+
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Sizes the specified pool, unless its size is configured explicitly.
+     *
+     * @param dataSource  the pool to size.
+     * @param environment the environment holding `customer.data-access.*` and `spring.datasource.hikari.*`.
+     * @param processors  the number of available processors.
+     */
+    static void sizePool(HikariDataSource dataSource, Environment environment, int processors) {
+        if (environment.containsProperty(MAXIMUM_POOL_SIZE)) {
+            return;
+        }
+
+        final int poolSize = poolSize(
+                environment.getProperty("customer.data-access.pool-size", Integer.class, 0),
+                environment.getProperty("customer.data-access.connections-per-core", Integer.class, 2),
+                processors,
+                environment.getProperty("customer.partitioning.enabled", Boolean.class, false)
+                        ? environment.getProperty("customer.partitioning.parallelism", Integer.class, 4) + 1
+                        : 1);
+
+        dataSource.setMaximumPoolSize(poolSize);
+
+        if (!environment.containsProperty(MINIMUM_IDLE)) {
+            dataSource.setMinimumIdle(poolSize);
+        }
+    }
+
+    /**
+     * Computes the size of the connection pool.
+     *
+     * @param configured         the configured size, or `0` to derive it from the processor count.
+     * @param connectionsPerCore the connections per processor when derived.
+     * @param processors         the number of available processors.
+     * @param minimum            the lowest size derived, ignored when the size is configured.
+     * @return the maximum number of connections, at least 1.
+     */
+    static int poolSize(int configured, int connectionsPerCore, int processors, int minimum) {
+        return configured > 0 ? configured : Math.max(Math.max(1, minimum), connectionsPerCore * processors);
+    }
+}
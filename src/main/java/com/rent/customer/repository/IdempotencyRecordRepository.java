@@ -0,0 +1,97 @@
+package com.rent.customer.repository;
+
+import com.rent.customer.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The `IdempotencyRecordRepository` interface is a Spring Data JPA repository responsible for data access
+ * operations on `IdempotencyRecord` entities stored in the `T_IDEMPOTENCY_KEY` table.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Inserts a reservation for the specified key unless a record already exists, relying on the primary key so
+     * that only one of several concurrent inserts succeeds.
+     *
+     * @param key           the idempotency key.
+     * @param requestDigest the digest of the request payload.
+     * @param createdAt     the reservation instant.
+     * @return `1` if the key was reserved, `0` if it was already present.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO T_IDEMPOTENCY_KEY (IDEMPOTENCY_KEY, REQUEST_DIGEST, CREATED_AT) "
+            + "VALUES (:key, :requestDigest, :createdAt) ON CONFLICT (IDEMPOTENCY_KEY) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("key") String key, @Param("requestDigest") String requestDigest,
+                       @Param("createdAt") Instant createdAt);
+
+    /**
+     * Replaces the record of the specified key with a new reservation if it is expired, or if it is an abandoned
+     * reservation. The row is locked by the update, so only one of several concurrent takeovers succeeds.
+     *
+     * @param key             the idempotency key.
+     * @param requestDigest   the digest of the request payload.
+     * @param createdAt       the reservation instant.
+     * @param abandonedBefore the instant before which a reservation that did not complete is abandoned.
+     * @param expiredBefore   the instant before which any record is expired.
+     * @return `1` if the key was reserved, `0` otherwise.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.requestDigest = :requestDigest, r.customerId = NULL, r.createdAt = :createdAt "
+            + "WHERE r.key = :key AND ((r.customerId IS NULL AND r.createdAt < :abandonedBefore) "
+            + "OR r.createdAt < :expiredBefore)")
+    int takeOver(@Param("key") String key, @Param("requestDigest") String requestDigest,
+                 @Param("createdAt") Instant createdAt, @Param("abandonedBefore") Instant abandonedBefore,
+                 @Param("expiredBefore") Instant expiredBefore);
+
+    /**
+     * Records the customer created by the request holding the reservation of the specified key, provided the key is
+     * still reserved for the same payload and has not completed.
+     *
+     * @param key           the idempotency key.
+     * @param requestDigest the digest of the request payload the key was reserved for.
+     * @param customerId    the unique identifier of the created customer.
+     * @return `1` if the outcome was recorded, `0` if the reservation was taken over or completed meanwhile.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.customerId = :customerId "
+            + "WHERE r.key = :key AND r.requestDigest = :requestDigest AND r.customerId IS NULL")
+    int complete(@Param("key") String key, @Param("requestDigest") String requestDigest,
+                 @Param("customerId") UUID customerId);
+
+    /**
+     * Deletes the reservation of the specified key if it is still reserved for the same payload and its request did
+     * not complete.
+     *
+     * @param key           the idempotency key.
+     * @param requestDigest the digest of the request payload the key was reserved for.
+     * @return the number of deleted records.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r "
+            + "WHERE r.key = :key AND r.requestDigest = :requestDigest AND r.customerId IS NULL")
+    int release(@Param("key") String key, @Param("requestDigest") String requestDigest);
+
+    /**
+     * Deletes every record created before the specified instant.
+     *
+     * @param cutoff the instant before which records are considered expired.
+     * @return the number of deleted records.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteExpired(@Param("cutoff") Instant cutoff);
+}
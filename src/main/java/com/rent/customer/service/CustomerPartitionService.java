@@ -0,0 +1,129 @@
+package com.rent.customer.service;
+
+import com.rent.customer.model.Customer;
+import com.rent.customer.repository.CustomerPartitionRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * The `CustomerPartitionService` class coordinates work on the hash-partitioned `T_CUSTOMER` table, enabled with
+ * `customer.partitioning.enabled` (see the `partitioned` profile). It runs per-partition tasks on a bounded pool of
+ * `customer.partitioning.parallelism` threads, so that full scans and bulk operations use several connections
+ * without starving request threads of the rest of the pool.
+ */
+@Service
+public class CustomerPartitionService {
+
+    private final CustomerPartitionRepository repository;
+    private final boolean enabled;
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a new `CustomerPartitionService`.
+     *
+     * @param repository  the repository providing partition-aware data access.
+     * @param enabled     whether `T_CUSTOMER` is hash-partitioned.
+     * @param parallelism the maximum number of partitions processed concurrently.
+     */
+    public CustomerPartitionService(CustomerPartitionRepository repository,
+                                    @Value("${customer.partitioning.enabled:false}") boolean enabled,
+                                    @Value("${customer.partitioning.parallelism:4}") int parallelism) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.executor = enabled
+                ? Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("customer-partition-"))
+                : null;
+    }
+
+    /**
+     * Checks whether `T_CUSTOMER` is hash-partitioned.
+     *
+     * @return `true` if partition-aware access should be used.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Retrieves the identifier of the customer registered with the specified e-mail address.
+     *
+     * @param email the email address to look up.
+     * @return an `Optional` containing the customer identifier, or an empty `Optional` if the e-mail is not registered.
+     */
+    public Optional<UUID> findIdByEmail(String email) {
+        return repository.findIdByEmail(email);
+    }
+
+    /**
+     * Retrieves all customers, reading the partitions in parallel.
+     *
+     * @return the customers of every partition.
+     */
+    public List<Customer> findAll() {
+        return mapPartitions(repository::findAllInPartition);
+    }
+
+    /**
+     * Runs the specified task once per partition, in parallel, and concatenates the results.
+     *
+     * @param task the task to run, given the partition table name.
+     * @param <T>  the type of the results.
+     * @return the results of every partition.
+     * @throws IllegalStateException if `T_CUSTOMER` has no partitions.
+     */
+    public <T> List<T> mapPartitions(Function<String, List<T>> task) {
+        final List<String> partitions = repository.findPartitionNames();
+
+        if (partitions.isEmpty()) {
+            // Otherwise a table that was never migrated would silently read as empty
+            throw new IllegalStateException("T_CUSTOMER is not partitioned; run scripts/partition-customer-table.sql");
+        }
+
+        final List<Future<List<T>>> futures = new ArrayList<>();
+
+        for (String partition : partitions) {
+            futures.add(executor.submit(() -> task.apply(partition)));
+        }
+
+        final List<T> results = new ArrayList<>();
+
+        try {
+            for (Future<List<T>> future : futures) {
+                results.addAll(future.get());
+            }
+        } catch (InterruptedException exception) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing partitions", exception);
+        } catch (ExecutionException exception) {
+            futures.forEach(future -> future.cancel(true));
+
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+
+            throw new IllegalStateException(exception.getCause());
+        }
+
+        return results;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
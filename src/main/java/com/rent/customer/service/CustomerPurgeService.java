@@ -0,0 +1,164 @@
+package com.rent.customer.service;
+
+import com.rent.customer.cache.CustomerInvalidationService;
+import com.rent.customer.model.dto.BulkDeleteRequestDTO;
+import com.rent.customer.model.dto.BulkDeleteResultDTO;
+import com.rent.customer.repository.CustomerBulkRepository;
+import com.rent.customer.writebehind.WriteBehindService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+/**
+ * The `CustomerPurgeService` class deletes customers in bulk without loading them. Customers are deleted in
+ * chunks of `customer.purge.chunk-size`, each in its own short transaction, so that a large purge never holds
+ * locks for long or produces one large burst of write-ahead log.
+ * <p>
+ * In write-behind mode, matching customers that are acknowledged but not flushed yet are dropped from the backlog
+ * and counted as deleted; otherwise the flusher would insert them again after the purge.
+ */
+@Service
+public class CustomerPurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerPurgeService.class);
+
+    private final CustomerBulkRepository repository;
+    private final CustomerPartitionService partitionService;
+    private final CustomerInvalidationService invalidationService;
+    private final WriteBehindService writeBehindService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    /**
+     * Constructs a new `CustomerPurgeService`.
+     *
+     * @param repository          the repository running the set-based statements.
+     * @param partitionService    the service running per-partition work when `T_CUSTOMER` is partitioned.
+     * @param invalidationService the service evicting the deleted customers from the response caches.
+     * @param writeBehindService  the service holding customers acknowledged but not yet flushed, in write-behind mode.
+     * @param transactionManager  the transaction manager used to commit each chunk.
+     * @param chunkSize           the maximum number of customers deleted per transaction.
+     */
+    public CustomerPurgeService(CustomerBulkRepository repository,
+                                CustomerPartitionService partitionService,
+                                CustomerInvalidationService invalidationService,
+                                WriteBehindService writeBehindService,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${customer.purge.chunk-size:1000}") int chunkSize) {
+        this.repository = repository;
+        this.partitionService = partitionService;
+        this.invalidationService = invalidationService;
+        this.writeBehindService = writeBehindService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Deletes the customers selected by the specified request.
+     *
+     * @param request the selection of customers to delete.
+     * @return the number of deleted customers and, when deleting by identifiers, the identifiers that were not found.
+     */
+    public BulkDeleteResultDTO delete(BulkDeleteRequestDTO request) {
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            return deleteByIds(request.getIds());
+        }
+
+        return deleteByEmailDomain(request.getEmailDomain());
+    }
+
+    private BulkDeleteResultDTO deleteByIds(List<UUID> requestedIds) {
+        final List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(requestedIds));
+        final Set<UUID> deletedIds = new HashSet<>(ids.size() * 2);
+
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            final List<UUID> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+
+            deletedIds.addAll(deleteChunk(chunk));
+        }
+
+        final List<UUID> missingIds = new ArrayList<>(ids.size() - deletedIds.size());
+
+        for (UUID id : ids) {
+            if (!deletedIds.contains(id)) {
+                missingIds.add(id);
+            }
+        }
+
+        logger.info("Bulk deleted {} customers, {} ids not found", deletedIds.size(), missingIds.size());
+        return new BulkDeleteResultDTO(deletedIds.size(), missingIds);
+    }
+
+    private BulkDeleteResultDTO deleteByEmailDomain(String emailDomain) {
+        // Dropped first, so that none of them is flushed behind the paging below
+        long deleted = evictDiscarded(writeBehindService.discardByEmailDomain(emailDomain));
+
+        if (partitionService.isEnabled()) {
+            // Partitions are independent tables, so each one is paged and purged on its own thread
+            final List<Long> partitionCounts = partitionService.mapPartitions(partition -> Collections.singletonList(
+                    deleteInChunks((after, limit) ->
+                            repository.findIdsByEmailDomain(partition, emailDomain, after, limit))));
+
+            for (Long partitionCount : partitionCounts) {
+                deleted += partitionCount;
+            }
+        } else {
+            deleted = deleteInChunks((after, limit) -> repository.findIdsByEmailDomain(emailDomain, after, limit));
+        }
+
+        logger.info("Bulk deleted {} customers with e-mail domain: {}", deleted, emailDomain);
+        return new BulkDeleteResultDTO(deleted, Collections.emptyList());
+    }
+
+    private long deleteInChunks(BiFunction<UUID, Integer, List<UUID>> nextChunk) {
+        long deleted = 0;
+        UUID after = null;
+        List<UUID> chunk;
+
+        do {
+            chunk = nextChunk.apply(after, chunkSize);
+
+            if (!chunk.isEmpty()) {
+                deleted += deleteChunk(chunk).size();
+                after = chunk.get(chunk.size() - 1);
+            }
+        } while (chunk.size() == chunkSize);
+
+        return deleted;
+    }
+
+    private List<UUID> deleteChunk(List<UUID> chunk) {
+        // Dropped before the delete, so that a pending customer is either dropped here or already in the database
+        final List<UUID> discarded = writeBehindService.discard(chunk);
+        final List<UUID> deleted = transactionTemplate.execute(status -> {
+            final List<UUID> ids = new ArrayList<>(repository.deleteByIds(chunk));
+
+            ids.addAll(discarded);
+            invalidationService.invalidateDeleted(ids);
+            return ids;
+        });
+
+        return deleted != null ? deleted : Collections.emptyList();
+    }
+
+    private int evictDiscarded(List<UUID> discarded) {
+        if (!discarded.isEmpty()) {
+            // A pending customer may have been served, and cached, from the backlog
+            transactionTemplate.executeWithoutResult(status -> invalidationService.invalidateDeleted(discarded));
+        }
+
+        return discarded.size();
+    }
+}
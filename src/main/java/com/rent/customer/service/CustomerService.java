@@ -1,15 +1,29 @@
 package com.rent.customer.service;
 
+import com.rent.customer.cache.CustomerInvalidationService;
 import com.rent.customer.exception.CustomerAlreadyExistsException;
 import com.rent.customer.exception.CustomerNotFoundException;
 import com.rent.customer.mapper.CustomerMapper;
 import com.rent.customer.model.Customer;
 import com.rent.customer.model.dto.CustomerDTO;
 import com.rent.customer.repository.CustomerRepository;
+import com.rent.customer.writebehind.WriteBehindService;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -20,24 +34,58 @@ import java.util.stream.Collectors;
 @Service
 public class CustomerService {
 
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final String EMAIL_REGISTRY_CONSTRAINT = "t_customer_email_pkey";
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
     private final CustomerRepository repository;
+    private final CustomerPartitionService partitionService;
+    private final WriteBehindService writeBehindService;
+    private final CustomerInvalidationService invalidationService;
+    private final TransactionTemplate transactionTemplate;
 
     /**
-     * Constructs a new `CustomerService` with the specified `CustomerRepository`.
+     * Constructs a new `CustomerService` with the specified `CustomerRepository`, `CustomerPartitionService`,
+     * `WriteBehindService`, `CustomerInvalidationService` and `PlatformTransactionManager`.
      *
-     * @param repository the repository responsible for data access operations on customer entities.
+     * @param repository          the repository responsible for data access operations on customer entities.
+     * @param partitionService    the service providing partition-aware access when `T_CUSTOMER` is partitioned.
+     * @param writeBehindService  the service holding customers acknowledged but not yet flushed, in write-behind mode.
+     * @param invalidationService the service evicting updated and deleted customers from the response caches.
+     * @param transactionManager  the transaction manager used by updates and deletes, once the customer is flushed.
      */
-    public CustomerService(CustomerRepository repository) {
+    public CustomerService(CustomerRepository repository,
+                           CustomerPartitionService partitionService,
+                           WriteBehindService writeBehindService,
+                           CustomerInvalidationService invalidationService,
+                           PlatformTransactionManager transactionManager) {
         this.repository = repository;
+        this.partitionService = partitionService;
+        this.writeBehindService = writeBehindService;
+        this.invalidationService = invalidationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
-     * Retrieves a list of all customers.
+     * Retrieves a list of all customers. When `T_CUSTOMER` is partitioned, the partitions are read in parallel.
+     * In write-behind mode, customers not flushed yet are included.
+     * <p>
+     * Deliberately not transactional: a transaction here would hold a connection while the partition reads wait for
+     * theirs, which can exhaust a small pool. The unpartitioned read runs in the repository's own read-only
+     * transaction, so Hibernate neither snapshots the loaded customers nor dirty-checks and flushes them on commit.
      *
      * @return a list of `CustomerDTO` objects representing all customers.
      */
     public List<CustomerDTO> findAll() {
-        return repository.findAll()
+        List<Customer> customers = partitionService.isEnabled()
+                ? partitionService.findAll()
+                : repository.findAll();
+
+        if (writeBehindService.isEnabled()) {
+            customers = withPending(customers);
+        }
+
+        return customers
                 .stream()
                 .map(CustomerMapper::toCustomerDTO)
                 .collect(Collectors.toList());
@@ -50,8 +98,10 @@ public class CustomerService {
      * @return a `CustomerDTO` object representing the customer.
      * @throws CustomerNotFoundException if no customer is found with the specified ID.
      */
+    @Transactional(readOnly = true)
     public CustomerDTO findById(UUID id) {
-        final Customer customer = repository.findById(id)
+        final Customer customer = writeBehindService.find(id)
+                .or(() -> repository.findById(id))
                 .orElseThrow(() ->
                         new CustomerNotFoundException(id)
                 );
@@ -60,7 +110,8 @@ public class CustomerService {
     }
 
     /**
-     * Creates a new customer record.
+     * Creates a new customer record. In write-behind mode, the customer is acknowledged once it is durably appended
+     * to the local write-ahead log and inserted later.
      *
      * @param customerDTO the `CustomerDTO` object containing the customer data to be created.
      * @return the unique identifier (UUID) of the newly created customer.
@@ -71,33 +122,105 @@ public class CustomerService {
 
         final Customer customer = CustomerMapper.toCustomer(customerDTO);
 
-        repository.save(customer);
+        if (writeBehindService.isEnabled()) {
+            customer.setId(UUID.randomUUID());
+            return writeBehindService.create(customer);
+        }
+
+        try {
+            repository.save(customer);
+        } catch (DataIntegrityViolationException exception) {
+            if (!isDuplicateEmail(exception)) {
+                throw exception;
+            }
+
+            // Lost a race with a concurrent registration of the same e-mail
+            throw new CustomerAlreadyExistsException(customerDTO.getEmail());
+        }
 
         return customer.getId();
     }
 
     /**
-     * Validates that a customer with the same email does not already exist.
+     * Checks whether an integrity violation was raised by the `T_CUSTOMER_EMAIL` registry, the only constraint
+     * enforcing e-mail uniqueness. Any other violation is a genuine failure and must not be reported as a conflict.
+     *
+     * @param exception the violation raised while saving a customer.
+     * @return `true` if the e-mail is already registered to another customer.
+     */
+    private static boolean isDuplicateEmail(DataIntegrityViolationException exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return UNIQUE_VIOLATION.equals(violation.getSQLState())
+                        && EMAIL_REGISTRY_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName());
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Validates that a customer with the same email does not already exist. When `T_CUSTOMER` is partitioned,
+     * the e-mail registry is used, since e-mail is not the partition key.
      *
      * @param customerDTO the `CustomerDTO` object to validate.
      * @throws CustomerAlreadyExistsException if a customer with the same email already exists.
      */
     private void validateCustomer(CustomerDTO customerDTO) {
-        this.repository.findByEmail((customerDTO.getEmail()))
-                .ifPresent(customer -> {
-                    throw new CustomerAlreadyExistsException(
-                            "Customer with e-mail: " + customer.getEmail() + " already exists"
-                    );
-                });
+        final boolean exists = partitionService.isEnabled()
+                ? partitionService.findIdByEmail(customerDTO.getEmail()).isPresent()
+                : this.repository.findByEmail(customerDTO.getEmail()).isPresent();
+
+        if (exists || writeBehindService.isEmailPending(customerDTO.getEmail())) {
+            throw new CustomerAlreadyExistsException(customerDTO.getEmail());
+        }
     }
 
     /**
-     * Updates an existing customer record.
+     * Updates an existing customer record. In write-behind mode, a customer not flushed yet is flushed first, before
+     * the update's transaction opens, so that the two never hold a connection each and a failed update cannot roll
+     * back the acknowledged create.
+     * <p>
+     * A concurrent write to the same customer fails the version check; the update is then applied again to the
+     * fresh customer, so the last writer wins, as a `PUT` did before customers were versioned.
      *
      * @param customerDTO the `CustomerDTO` object containing the updated customer data.
-     * @throws CustomerNotFoundException if no customer is found with the specified ID.
+     * @throws CustomerNotFoundException         if no customer is found with the specified ID.
+     * @throws CustomerAlreadyExistsException    if the new email belongs to another customer.
+     * @throws OptimisticLockingFailureException if concurrent writes win every attempt.
      */
     public void update(CustomerDTO customerDTO) {
+        writeBehindService.flushIfPending(customerDTO.getId());
+        executeWithRetry(status -> updateFlushed(customerDTO));
+    }
+
+    /**
+     * Deletes a customer record by their unique identifier. A customer not flushed yet is flushed first, and a
+     * concurrent write is retried, as in `update`.
+     *
+     * @param id the unique identifier of the customer to delete.
+     * @throws CustomerNotFoundException         if no customer is found with the specified ID.
+     * @throws OptimisticLockingFailureException if concurrent writes win every attempt.
+     */
+    public void delete(UUID id) {
+        writeBehindService.flushIfPending(id);
+        executeWithRetry(status -> deleteFlushed(id));
+    }
+
+    private void executeWithRetry(Consumer<TransactionStatus> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(action);
+                return;
+            } catch (OptimisticLockingFailureException exception) {
+                if (attempt == MAX_WRITE_ATTEMPTS) {
+                    throw exception;
+                }
+            }
+        }
+    }
+
+    private void updateFlushed(CustomerDTO customerDTO) {
         final Customer customer = this.repository.findById(customerDTO.getId())
                 .orElseThrow(() ->
                         new CustomerNotFoundException(customerDTO.getId())
@@ -109,22 +232,47 @@ public class CustomerService {
 
         mergeCustomer(customer, customerDTO);
 
-        this.repository.save(customer);
+        // Flushing increments the version, which orders this invalidation against concurrent ones
+        try {
+            this.repository.saveAndFlush(customer);
+        } catch (DataIntegrityViolationException exception) {
+            if (!isDuplicateEmail(exception)) {
+                throw exception;
+            }
+
+            // Lost a race with a concurrent registration of the new e-mail
+            throw new CustomerAlreadyExistsException(customerDTO.getEmail());
+        }
+
+        invalidationService.invalidate(customer.getId(), customer.getVersion());
     }
 
-    /**
-     * Deletes a customer record by their unique identifier.
-     *
-     * @param id the unique identifier of the customer to delete.
-     * @throws CustomerNotFoundException if no customer is found with the specified ID.
-     */
-    public void delete(UUID id) {
+    private void deleteFlushed(UUID id) {
         final Customer customer = this.repository.findById(id)
                 .orElseThrow(() ->
                         new CustomerNotFoundException(id)
                 );
 
+        // Flushed now, so that a lost version check rolls back before the invalidation takes a sequence number
         this.repository.delete(customer);
+        this.repository.flush();
+        invalidationService.invalidateDeleted(Collections.singletonList(id));
+    }
+
+    private List<Customer> withPending(List<Customer> customers) {
+        final List<Customer> result = new ArrayList<>(customers);
+        final Set<UUID> ids = new HashSet<>(customers.size() * 2);
+
+        // A customer flushed while the database was being read would otherwise be listed twice
+        customers.forEach(customer -> ids.add(customer.getId()));
+
+        for (Customer customer : writeBehindService.findAll()) {
+            if (ids.add(customer.getId())) {
+                result.add(customer);
+            }
+        }
+
+        return result;
     }
 
     private static void mergeCustomer(Customer customer, CustomerDTO customerDTO) {
@@ -0,0 +1,177 @@
+package com.rent.customer.service;
+
+import com.rent.customer.exception.IdempotencyKeyReusedException;
+import com.rent.customer.exception.IdempotentRequestInProgressException;
+import com.rent.customer.idempotency.IdempotencyStore;
+import com.rent.customer.model.IdempotencyRecord;
+import com.rent.customer.model.dto.CustomerDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * The `IdempotencyService` class ensures that a customer creation sent with the same `Idempotency-Key`
+ * is executed at most once. The key is reserved in the `IdempotencyStore` before the creation runs, and completed
+ * requests are replayed from it. Duplicates that arrive on the same instance while the original is still running
+ * wait up to `customer.idempotency.in-flight-timeout` for its outcome; duplicates of a request running elsewhere,
+ * or for longer than that, are rejected with `IdempotentRequestInProgressException` and may be retried.
+ * <p>
+ * Payloads are compared by the SHA-256 digest of their fields, so a different payload cannot pass for a retry.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final IdempotencyStore store;
+    private final Duration inFlightTimeout;
+    private final ConcurrentMap<String, InFlightRequest> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new `IdempotencyService` with the specified `IdempotencyStore`.
+     *
+     * @param store           the store reserving keys and holding the responses of completed requests.
+     * @param inFlightTimeout how long a duplicate waits for the original request to complete.
+     */
+    public IdempotencyService(IdempotencyStore store,
+                              @Value("${customer.idempotency.in-flight-timeout:30s}") Duration inFlightTimeout) {
+        this.store = store;
+        this.inFlightTimeout = inFlightTimeout;
+    }
+
+    /**
+     * Executes the specified action once per idempotency key.
+     *
+     * @param key         the idempotency key sent by the client.
+     * @param customerDTO the request payload, used to detect a key being reused for a different request.
+     * @param action      the action creating the customer.
+     * @return the unique identifier (UUID) of the customer created by the original request.
+     * @throws IdempotencyKeyReusedException        if the key was already used with a different payload.
+     * @throws IdempotentRequestInProgressException if the original request is still running.
+     */
+    public UUID execute(String key, CustomerDTO customerDTO, Supplier<UUID> action) {
+        final String requestDigest = requestDigest(customerDTO);
+        final Optional<IdempotencyRecord> stored = store.find(key);
+
+        if (stored.isPresent() && stored.get().isCompleted()) {
+            return replay(key, requestDigest, stored.get());
+        }
+
+        final InFlightRequest request = new InFlightRequest(requestDigest);
+        final InFlightRequest original = inFlight.putIfAbsent(key, request);
+
+        if (original != null) {
+            if (!original.requestDigest.equals(requestDigest)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+
+            logger.debug("Waiting for in-flight request with idempotency key: {}", key);
+            return await(key, original.result);
+        }
+
+        try {
+            final UUID customerId = store.reserve(key, requestDigest)
+                    ? run(key, requestDigest, action)
+                    : replay(key, requestDigest, store.find(key)
+                            .orElseThrow(() -> new IdempotentRequestInProgressException(key)));
+
+            request.result.complete(customerId);
+            return customerId;
+        } catch (RuntimeException exception) {
+            request.result.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            inFlight.remove(key, request);
+        }
+    }
+
+    private UUID run(String key, String requestDigest, Supplier<UUID> action) {
+        final UUID customerId;
+
+        try {
+            customerId = action.get();
+        } catch (RuntimeException exception) {
+            store.release(key, requestDigest);
+            throw exception;
+        }
+
+        if (!store.complete(key, requestDigest, customerId)) {
+            // Ran past the in-flight timeout and was taken over: the request may have run twice
+            logger.warn("Idempotency key {} was taken over while its request ran, created customer {}", key,
+                    customerId);
+        }
+
+        return customerId;
+    }
+
+    private static UUID replay(String key, String requestDigest, IdempotencyRecord record) {
+        if (!record.getRequestDigest().equals(requestDigest)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+
+        if (!record.isCompleted()) {
+            throw new IdempotentRequestInProgressException(key);
+        }
+
+        logger.debug("Replaying response for idempotency key: {}", key);
+        return record.getCustomerId();
+    }
+
+    private UUID await(String key, CompletableFuture<UUID> result) {
+        try {
+            return result.get(inFlightTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException exception) {
+            throw new IdempotentRequestInProgressException(key);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IdempotentRequestInProgressException(key);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
+
+    // Each field is length-prefixed, so that no two payloads share a canonical form
+    static String requestDigest(CustomerDTO customerDTO) {
+        final StringBuilder canonical = new StringBuilder();
+
+        for (String field : new String[]{customerDTO.getFirstName(), customerDTO.getLastName(), customerDTO.getEmail()}) {
+            canonical.append(field == null ? -1 : field.length()).append(':').append(field == null ? "" : field);
+        }
+
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+    }
+
+    private static final class InFlightRequest {
+        private final String requestDigest;
+        private final CompletableFuture<UUID> result = new CompletableFuture<>();
+
+        private InFlightRequest(String requestDigest) {
+            this.requestDigest = requestDigest;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.rent.customer.writebehind;
+
+import com.rent.customer.model.Customer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * The `CustomerRecordCodec` class encodes customers as write-ahead log payloads:
+ * `[long mostSigBits][long leastSigBits]` followed by the first name, last name and email, each as
+ * `[int length][UTF-8 bytes]` (`-1` for `null`).
+ */
+final class CustomerRecordCodec {
+
+    private CustomerRecordCodec() {
+    }
+
+    static byte[] encode(Customer customer) {
+        final byte[] firstName = bytes(customer.getFirstName());
+        final byte[] lastName = bytes(customer.getLastName());
+        final byte[] email = bytes(customer.getEmail());
+        final ByteBuffer buffer = ByteBuffer.allocate(16 + 12 + length(firstName) + length(lastName) + length(email));
+
+        buffer.putLong(customer.getId().getMostSignificantBits());
+        buffer.putLong(customer.getId().getLeastSignificantBits());
+        put(buffer, firstName);
+        put(buffer, lastName);
+        put(buffer, email);
+
+        return buffer.array();
+    }
+
+    static Customer decode(byte[] payload) {
+        final ByteBuffer buffer = ByteBuffer.wrap(payload);
+        final Customer customer = new Customer();
+
+        customer.setId(new UUID(buffer.getLong(), buffer.getLong()));
+        customer.setFirstName(get(buffer));
+        customer.setLastName(get(buffer));
+        customer.setEmail(get(buffer));
+
+        return customer;
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int length(byte[] value) {
+        return value != null ? value.length : 0;
+    }
+
+    private static void put(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+
+        buffer.putInt(value.length);
+        buffer.put(value);
+    }
+
+    private static String get(ByteBuffer buffer) {
+        final int length = buffer.getInt();
+
+        if (length < 0) {
+            return null;
+        }
+
+        final byte[] value = new byte[length];
+        buffer.get(value);
+
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,340 @@
+package com.rent.customer.writebehind;
+
+import com.rent.customer.exception.WriteAheadLogFullException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * The `WriteAheadLog` class is a fixed-size, memory-mapped, circular log of records that have been acknowledged but
+ * not yet written to the database.
+ * <p>
+ * Layout: a 16-byte header holding the checkpoint (the position and sequence number of the oldest unflushed record),
+ * followed by records of the form `[int length][int crc32][long sequence][payload]`. A zero length marks the end of
+ * the log, and a length of -1 continues it at the start of the record area. A record's length is written last, so a
+ * record is only visible to recovery once it is complete; recovery also stops at the first record whose sequence
+ * number does not follow the previous one, which is how records left over from an earlier lap are told apart.
+ * <p>
+ * `append` returns only once the record is durable. Concurrent appenders share one `force()` (group commit):
+ * the first waiter forces everything written so far while the others wait for it. The space of flushed records is
+ * reused as soon as the checkpoint has moved past them, so the size of the log bounds the backlog, not the total
+ * volume, even if the backlog never drains completely.
+ */
+public class WriteAheadLog implements Closeable {
+
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 16;
+    private static final int TERMINATOR_SIZE = 4;
+    private static final int WRAP = -1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final long fullTimeoutNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition synced = lock.newCondition();
+    private final Condition spaceAvailable = lock.newCondition();
+    private final NavigableMap<Long, Integer> unflushed = new TreeMap<>();
+    private final List<Record> recovered;
+
+    private int writePosition;
+    private long nextSequence;
+    private long durableSequence;
+    private boolean syncInProgress;
+
+    private WriteAheadLog(FileChannel channel, MappedByteBuffer buffer, int capacity, long fullTimeoutNanos) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.fullTimeoutNanos = fullTimeoutNanos;
+        this.recovered = recover();
+    }
+
+    /**
+     * Opens, or creates, the log at the specified path and recovers the records that were not flushed yet.
+     *
+     * @param path             the log file.
+     * @param capacity         the size of the log in bytes.
+     * @param fullTimeoutNanos how long `append` waits for space when the log is full.
+     * @return the opened log.
+     * @throws IOException if the file cannot be opened or mapped.
+     */
+    public static WriteAheadLog open(Path path, int capacity, long fullTimeoutNanos) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        final FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final int size = (int) Math.max(channel.size(), capacity);
+
+        return new WriteAheadLog(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size), size, fullTimeoutNanos);
+    }
+
+    /**
+     * Retrieves the records found after the checkpoint when the log was opened, in append order.
+     *
+     * @return the recovered records; they stay unflushed until passed to `markFlushed`.
+     */
+    public List<Record> getRecovered() {
+        return recovered;
+    }
+
+    /**
+     * Appends a record and waits until it is durable.
+     *
+     * @param payload the record payload.
+     * @return the sequence number of the record, to be passed to `markFlushed` once it is in the database.
+     * @throws InterruptedException        if interrupted while waiting for space or for the sync.
+     * @throws WriteAheadLogFullException if the log stays full for longer than the configured timeout.
+     */
+    public long append(byte[] payload) throws InterruptedException {
+        final int recordSize = RECORD_HEADER_SIZE + payload.length;
+
+        if (HEADER_SIZE + recordSize + TERMINATOR_SIZE > capacity) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes does not fit in the write-ahead log");
+        }
+
+        lock.lock();
+        try {
+            long remainingNanos = fullTimeoutNanos;
+            int start;
+
+            while ((start = findSpace(recordSize)) < 0) {
+                if (remainingNanos <= 0) {
+                    throw new WriteAheadLogFullException();
+                }
+
+                remainingNanos = spaceAvailable.awaitNanos(remainingNanos);
+            }
+
+            final long sequence = nextSequence++;
+            final int end = start + recordSize;
+
+            buffer.putInt(end, 0);
+            buffer.putLong(start + 8, sequence);
+            buffer.putInt(start + 4, crc(payload));
+            buffer.put(start + RECORD_HEADER_SIZE, payload);
+            buffer.putInt(start, payload.length);
+
+            if (unflushed.isEmpty()) {
+                // Nothing to keep, so the log restarts at the beginning; the checkpoint is forced with the record
+                buffer.putLong(0, start);
+                buffer.putLong(8, sequence);
+            } else if (start != writePosition) {
+                // Links the end of the log to the wrapped record, once that record is complete
+                buffer.putInt(writePosition, WRAP);
+            }
+
+            writePosition = end;
+            unflushed.put(sequence, start);
+
+            awaitDurable(sequence);
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks records as written to the database, advancing the checkpoint to the oldest record left. The space up to
+     * the new checkpoint can be reused by `append`.
+     *
+     * @param sequences the sequence numbers returned by `append` or found in `getRecovered`.
+     */
+    public void markFlushed(Collection<Long> sequences) {
+        lock.lock();
+        try {
+            unflushed.keySet().removeAll(sequences);
+
+            final Map.Entry<Long, Integer> oldest = unflushed.firstEntry();
+
+            buffer.putLong(0, oldest != null ? oldest.getValue() : writePosition);
+            buffer.putLong(8, oldest != null ? oldest.getKey() : nextSequence);
+
+            // Forced before the space is reused, otherwise recovery from a stale checkpoint could stop at an
+            // overwritten record and miss the ones after it
+            buffer.force(0, HEADER_SIZE);
+            spaceAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the number of bytes between the checkpoint and the end of the log, including the space skipped
+     * when the log wrapped around.
+     *
+     * @return the bytes used by unflushed records.
+     */
+    public long getUsedBytes() {
+        lock.lock();
+        try {
+            if (unflushed.isEmpty()) {
+                return 0;
+            }
+
+            final int tail = unflushed.firstEntry().getValue();
+
+            return tail < writePosition ? writePosition - tail : capacity - tail + writePosition - HEADER_SIZE;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the size of the log.
+     *
+     * @return the capacity in bytes.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            buffer.force();
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Returns where a record of the specified size fits without overwriting unflushed records, or -1 if it does not
+    private int findSpace(int recordSize) {
+        if (unflushed.isEmpty()) {
+            return HEADER_SIZE;
+        }
+
+        final int tail = unflushed.firstEntry().getValue();
+
+        if (tail > writePosition) {
+            return writePosition + recordSize + TERMINATOR_SIZE <= tail ? writePosition : -1;
+        }
+
+        if (writePosition + recordSize + TERMINATOR_SIZE <= capacity) {
+            return writePosition;
+        }
+
+        return HEADER_SIZE + recordSize + TERMINATOR_SIZE <= tail ? HEADER_SIZE : -1;
+    }
+
+    // Called with the lock held; the lock is released while forcing so that other threads can keep appending
+    private void awaitDurable(long sequence) throws InterruptedException {
+        while (durableSequence <= sequence) {
+            if (syncInProgress) {
+                synced.await();
+                continue;
+            }
+
+            syncInProgress = true;
+            final long target = nextSequence;
+
+            lock.unlock();
+            try {
+                buffer.force();
+            } finally {
+                lock.lock();
+                syncInProgress = false;
+                synced.signalAll();
+            }
+
+            durableSequence = Math.max(durableSequence, target);
+        }
+    }
+
+    private List<Record> recover() {
+        final long checkpoint = buffer.getLong(0);
+        final boolean valid = checkpoint >= HEADER_SIZE && checkpoint <= capacity - TERMINATOR_SIZE;
+        int position = valid ? (int) checkpoint : HEADER_SIZE;
+        long sequence = valid ? buffer.getLong(8) : 0;
+        boolean wrapped = false;
+        final List<Record> records = new ArrayList<>();
+
+        while (true) {
+            final int length = buffer.getInt(position);
+
+            // The unflushed records span at most one wrap
+            if (length == WRAP && !wrapped) {
+                wrapped = true;
+                position = HEADER_SIZE;
+                continue;
+            }
+
+            if (length <= 0 || length > capacity - position - RECORD_HEADER_SIZE - TERMINATOR_SIZE
+                    || buffer.getLong(position + 8) != sequence) {
+                break;
+            }
+
+            final byte[] payload = new byte[length];
+            buffer.get(position + RECORD_HEADER_SIZE, payload);
+
+            if (crc(payload) != buffer.getInt(position + 4)) {
+                break;
+            }
+
+            records.add(new Record(sequence, payload));
+            unflushed.put(sequence, position);
+            sequence++;
+            position += RECORD_HEADER_SIZE + length;
+        }
+
+        buffer.putInt(position, 0);
+        writePosition = position;
+        nextSequence = sequence;
+        durableSequence = sequence;
+
+        if (records.isEmpty()) {
+            buffer.putLong(0, position);
+            buffer.putLong(8, sequence);
+        }
+
+        return Collections.unmodifiableList(records);
+    }
+
+    private static int crc(byte[] payload) {
+        final CRC32 crc = new CRC32();
+
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * A record found in the log on recovery.
+     */
+    public static final class Record {
+        private final long sequence;
+        private final byte[] payload;
+
+        private Record(long sequence, byte[] payload) {
+            this.sequence = sequence;
+            this.payload = payload;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public byte[] getPayload() {
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.rent.customer.writebehind;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The `WriteBehindConfig` class binds `WriteBehindProperties`. The `WriteBehindService` is always present and
+ * does nothing unless `customer.write-behind.enabled` is `true`, so that `CustomerService` has a single code path
+ * to consult.
+ */
+@Configuration
+@EnableConfigurationProperties(WriteBehindProperties.class)
+public class WriteBehindConfig {
+}
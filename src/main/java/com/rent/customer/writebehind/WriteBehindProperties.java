@@ -0,0 +1,60 @@
+package com.rent.customer.writebehind;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * The `WriteBehindProperties` class binds the `customer.write-behind` configuration. Write-behind is disabled
+ * by default; the flush interval is read directly by the scheduler from `customer.write-behind.flush-interval`.
+ */
+@ConfigurationProperties(prefix = "customer.write-behind")
+public class WriteBehindProperties {
+
+    private boolean enabled = false;
+    private String walPath = "data/customer-write-behind.wal";
+    private DataSize walSize = DataSize.ofMegabytes(64);
+    private Duration walFullTimeout = Duration.ofSeconds(5);
+    private int batchSize = 500;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getWalPath() {
+        return walPath;
+    }
+
+    public void setWalPath(String walPath) {
+        this.walPath = walPath;
+    }
+
+    public DataSize getWalSize() {
+        return walSize;
+    }
+
+    public void setWalSize(DataSize walSize) {
+        this.walSize = walSize;
+    }
+
+    public Duration getWalFullTimeout() {
+        return walFullTimeout;
+    }
+
+    public void setWalFullTimeout(Duration walFullTimeout) {
+        this.walFullTimeout = walFullTimeout;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
@@ -0,0 +1,447 @@
+package com.rent.customer.writebehind;
+
+import com.rent.customer.exception.CustomerAlreadyExistsException;
+import com.rent.customer.exception.WriteAheadLogFullException;
+import com.rent.customer.model.Customer;
+import com.rent.customer.repository.CustomerBulkRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The `WriteBehindService` class implements the opt-in write-behind mode of customer creation
+ * (`customer.write-behind.enabled`). A new customer is appended to a local `WriteAheadLog` and acknowledged as soon
+ * as the append is durable; a scheduled flusher then inserts the backlog into `T_CUSTOMER` in batches, every
+ * `customer.write-behind.flush-interval` milliseconds.
+ * <p>
+ * Customers stay readable from memory until they are flushed, and their e-mails stay reserved so that duplicates are
+ * still rejected. Records left in the log by a crash are loaded back on startup and flushed by the first run of the
+ * flusher; the insert ignores customers that are already in the database, so replaying a record twice is harmless.
+ * <p>
+ * Guarantee: an acknowledged customer stays in the log until it is committed to `T_CUSTOMER`, and a batch that fails
+ * for any other reason than an integrity violation is retried on the next run, however long the database is
+ * unavailable. The one exception is a customer the database rejects with an integrity violation, such as an e-mail
+ * registered meanwhile by another instance: retrying it can never succeed, so it is dropped. Its id is logged at
+ * error level, it is counted in `customer.write-behind.rejected`, its e-mail is released and it is removed from the
+ * log; the client was already answered `201` and is not told.
+ * <p>
+ * Records left in the log are replayed even once `customer.write-behind.enabled` is turned off: the log is then only
+ * opened if it exists, new creates go straight to the database, and the flusher drains what is left.
+ */
+@Service
+public class WriteBehindService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindService.class);
+
+    private final WriteBehindProperties properties;
+    private final CustomerBulkRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<UUID, PendingCustomer> pending = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, UUID> pendingEmails = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+
+    private WriteAheadLog log;
+    private Counter flushedCounter;
+    private Counter rejectedCounter;
+    private Timer flushTimer;
+
+    /**
+     * Constructs a new `WriteBehindService`. Every collaborator is required, even while write-behind is disabled.
+     *
+     * @param properties         the write-behind configuration.
+     * @param repository         the repository inserting flushed customers.
+     * @param transactionManager the transaction manager used to commit each batch in a transaction of its own.
+     * @param meterRegistry      the registry of the backlog and flush metrics.
+     */
+    public WriteBehindService(WriteBehindProperties properties,
+                              CustomerBulkRepository repository,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.properties = Objects.requireNonNull(properties, "properties");
+        this.repository = Objects.requireNonNull(repository, "repository");
+        this.transactionTemplate = new TransactionTemplate(
+                Objects.requireNonNull(transactionManager, "transactionManager"));
+        // A batch must commit before it leaves the log, even when flushed from within a caller's transaction
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "meterRegistry");
+    }
+
+    /**
+     * Opens the write-ahead log and loads the records that were not flushed before the last shutdown. The database
+     * is not touched here, so a large backlog does not delay startup. While write-behind is disabled, an existing log
+     * is still opened so that its backlog is flushed.
+     *
+     * @throws IllegalStateException if `customer.write-behind.wal-size` cannot be mapped.
+     */
+    @PostConstruct
+    void open() {
+        final Path walPath = Paths.get(properties.getWalPath());
+
+        if (!properties.isEnabled() && !Files.exists(walPath)) {
+            return;
+        }
+
+        final long walSize = properties.getWalSize().toBytes();
+
+        // A single memory mapping is limited to Integer.MAX_VALUE bytes
+        if (walSize <= 0 || walSize > Integer.MAX_VALUE) {
+            throw new IllegalStateException("customer.write-behind.wal-size must be between 1B and "
+                    + Integer.MAX_VALUE + "B: " + properties.getWalSize());
+        }
+
+        try {
+            log = WriteAheadLog.open(walPath, (int) walSize, properties.getWalFullTimeout().toNanos());
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Cannot open write-ahead log " + properties.getWalPath(), exception);
+        }
+
+        final long now = System.nanoTime();
+
+        for (WriteAheadLog.Record record : log.getRecovered()) {
+            final Customer customer = CustomerRecordCodec.decode(record.getPayload());
+
+            pending.put(customer.getId(), new PendingCustomer(customer, record.getSequence(), now));
+            pendingEmails.put(customer.getEmail(), customer.getId());
+        }
+
+        if (!pending.isEmpty() && !properties.isEnabled()) {
+            logger.warn("Write-behind is disabled; flushing {} customers left in write-ahead log {}", pending.size(),
+                    properties.getWalPath());
+        } else if (!pending.isEmpty()) {
+            logger.info("Recovered {} unflushed customers from write-ahead log {}", pending.size(),
+                    properties.getWalPath());
+        }
+
+        Gauge.builder("customer.write-behind.backlog", pending, ConcurrentMap::size)
+                .description("Customers acknowledged but not yet written to the database")
+                .register(meterRegistry);
+        Gauge.builder("customer.write-behind.flush.lag", this, WriteBehindService::getFlushLagSeconds)
+                .description("Age of the oldest customer not yet written to the database")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("customer.write-behind.wal.used", log, WriteAheadLog::getUsedBytes)
+                .description("Bytes of the write-ahead log holding unflushed customers")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        flushedCounter = Counter.builder("customer.write-behind.flushed").register(meterRegistry);
+        rejectedCounter = Counter.builder("customer.write-behind.rejected").register(meterRegistry);
+        flushTimer = Timer.builder("customer.write-behind.flush").register(meterRegistry);
+    }
+
+    /**
+     * Checks whether creates are written behind.
+     *
+     * @return `true` if `create` should be used instead of a direct insert.
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Appends a new customer to the write-ahead log and returns once the append is durable.
+     *
+     * @param customer the validated customer, with its identifier already assigned.
+     * @return the identifier of the customer.
+     * @throws CustomerAlreadyExistsException if a customer with the same email is waiting to be flushed.
+     * @throws WriteAheadLogFullException     if the log stays full for longer than `wal-full-timeout`.
+     */
+    public UUID create(Customer customer) {
+        if (pendingEmails.putIfAbsent(customer.getEmail(), customer.getId()) != null) {
+            throw new CustomerAlreadyExistsException(customer.getEmail());
+        }
+
+        try {
+            final long sequence = log.append(CustomerRecordCodec.encode(customer));
+
+            pending.put(customer.getId(), new PendingCustomer(customer, sequence, System.nanoTime()));
+        } catch (InterruptedException exception) {
+            pendingEmails.remove(customer.getEmail(), customer.getId());
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while appending to the write-ahead log", exception);
+        } catch (RuntimeException exception) {
+            pendingEmails.remove(customer.getEmail(), customer.getId());
+            throw exception;
+        }
+
+        return customer.getId();
+    }
+
+    /**
+     * Retrieves a customer that is waiting to be flushed.
+     *
+     * @param id the identifier of the customer.
+     * @return an `Optional` containing the customer, or an empty `Optional` if it is not pending.
+     */
+    public Optional<Customer> find(UUID id) {
+        final PendingCustomer entry = pending.get(id);
+
+        return entry != null ? Optional.of(entry.customer) : Optional.empty();
+    }
+
+    /**
+     * Retrieves every customer waiting to be flushed.
+     *
+     * @return a snapshot of the pending customers.
+     */
+    public List<Customer> findAll() {
+        final List<Customer> customers = new ArrayList<>(pending.size());
+
+        pending.values().forEach(entry -> customers.add(entry.customer));
+        return customers;
+    }
+
+    /**
+     * Checks whether the specified e-mail belongs to a customer waiting to be flushed.
+     *
+     * @param email the email address to check.
+     * @return `true` if the e-mail is reserved by a pending customer.
+     */
+    public boolean isEmailPending(String email) {
+        return pendingEmails.containsKey(email);
+    }
+
+    /**
+     * Flushes the specified customer right away if it is pending, so that it can be updated or deleted through the
+     * database; the rest of the backlog is left to the flusher. The flush commits in a transaction of its own, so it
+     * should be called before the caller's transaction opens: inside one, it would use a second connection.
+     *
+     * @param id the identifier of the customer.
+     */
+    public void flushIfPending(UUID id) {
+        if (log == null || !pending.containsKey(id)) {
+            return;
+        }
+
+        synchronized (flushLock) {
+            final PendingCustomer entry = pending.get(id);
+
+            // Flushed by a concurrent run otherwise; a failure leaves it pending for the next one
+            if (entry != null) {
+                flushBatch(Collections.singletonList(entry));
+            }
+        }
+    }
+
+    /**
+     * Inserts the backlog into the database in batches of `customer.write-behind.batch-size`. A batch that fails
+     * stays in the log and is retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${customer.write-behind.flush-interval:100}")
+    public void flush() {
+        if (log == null) {
+            return;
+        }
+
+        synchronized (flushLock) {
+            List<PendingCustomer> batch;
+
+            do {
+                batch = nextBatch();
+            } while (!batch.isEmpty() && flushBatch(batch) && batch.size() == properties.getBatchSize());
+        }
+    }
+
+    /**
+     * Drops the specified customers from the backlog, so that a flush cannot insert them after they were purged.
+     * Waits for a flush in progress, so a customer it has inserted is in the database when this returns.
+     *
+     * @param ids the identifiers of the customers to drop.
+     * @return the identifiers of the customers that were pending and are now dropped.
+     */
+    public List<UUID> discard(Collection<UUID> ids) {
+        return discard(() -> {
+            final List<PendingCustomer> entries = new ArrayList<>();
+
+            for (UUID id : ids) {
+                final PendingCustomer entry = pending.get(id);
+
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+
+            return entries;
+        });
+    }
+
+    /**
+     * Drops the customers of the specified e-mail domain from the backlog, as `discard` does.
+     *
+     * @param emailDomain the email domain (the part after `@`).
+     * @return the identifiers of the customers that were pending and are now dropped.
+     */
+    public List<UUID> discardByEmailDomain(String emailDomain) {
+        final String suffix = "@" + emailDomain;
+
+        return discard(() -> {
+            final List<PendingCustomer> entries = new ArrayList<>();
+
+            for (PendingCustomer entry : pending.values()) {
+                if (entry.customer.getEmail().endsWith(suffix)) {
+                    entries.add(entry);
+                }
+            }
+
+            return entries;
+        });
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (log == null) {
+            return;
+        }
+
+        try {
+            flush();
+        } finally {
+            log.close();
+        }
+    }
+
+    private List<PendingCustomer> nextBatch() {
+        final List<PendingCustomer> batch = new ArrayList<>(Math.min(pending.size(), properties.getBatchSize()));
+
+        for (PendingCustomer entry : pending.values()) {
+            if (batch.size() == properties.getBatchSize()) {
+                break;
+            }
+
+            batch.add(entry);
+        }
+
+        return batch;
+    }
+
+    private boolean flushBatch(List<PendingCustomer> batch) {
+        final long start = System.nanoTime();
+
+        try {
+            insert(batch);
+            complete(batch);
+            return true;
+        } catch (DataAccessException batchException) {
+            logger.warn("Write-behind batch of {} customers failed, retrying one by one", batch.size(), batchException);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        // Isolate the records the database rejects, so that one of them cannot block the rest of the backlog
+        for (PendingCustomer entry : batch) {
+            final List<PendingCustomer> single = Collections.singletonList(entry);
+
+            try {
+                insert(single);
+            } catch (DataIntegrityViolationException exception) {
+                logger.error("Dropping write-behind customer {} rejected by the database", entry.customer.getId(),
+                        exception);
+                rejectedCounter.increment();
+            } catch (DataAccessException exception) {
+                logger.warn("Write-behind flush failed, {} customers pending", pending.size(), exception);
+                return false;
+            }
+
+            complete(single);
+        }
+
+        return true;
+    }
+
+    // Selects under the flush lock, so that a customer being flushed is either inserted or dropped, never both
+    private List<UUID> discard(Supplier<List<PendingCustomer>> selection) {
+        if (log == null) {
+            return Collections.emptyList();
+        }
+
+        synchronized (flushLock) {
+            final List<PendingCustomer> discarded = selection.get();
+
+            if (discarded.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            final List<UUID> ids = new ArrayList<>(discarded.size());
+
+            discarded.forEach(entry -> ids.add(entry.customer.getId()));
+            release(discarded);
+            return ids;
+        }
+    }
+
+    private void insert(List<PendingCustomer> batch) {
+        final List<Customer> customers = new ArrayList<>(batch.size());
+
+        batch.forEach(entry -> customers.add(entry.customer));
+        transactionTemplate.executeWithoutResult(status -> repository.insertIgnoringExisting(customers));
+    }
+
+    private void complete(Collection<PendingCustomer> batch) {
+        // Committed, so reads can now be served by the database
+        release(batch);
+        flushedCounter.increment(batch.size());
+    }
+
+    private void release(Collection<PendingCustomer> batch) {
+        final List<Long> sequences = new ArrayList<>(batch.size());
+
+        for (PendingCustomer entry : batch) {
+            pending.remove(entry.customer.getId());
+            pendingEmails.remove(entry.customer.getEmail(), entry.customer.getId());
+            sequences.add(entry.sequence);
+        }
+
+        log.markFlushed(sequences);
+    }
+
+    private double getFlushLagSeconds() {
+        long oldest = Long.MAX_VALUE;
+
+        for (PendingCustomer entry : pending.values()) {
+            oldest = Math.min(oldest, entry.appendedAtNanos);
+        }
+
+        return oldest == Long.MAX_VALUE ? 0 : (System.nanoTime() - oldest) / 1e9;
+    }
+
+    private static final class PendingCustomer {
+        private final Customer customer;
+        private final long sequence;
+        private final long appendedAtNanos;
+
+        private PendingCustomer(Customer customer, long sequence, long appendedAtNanos) {
+            this.customer = customer;
+            this.sequence = sequence;
+            this.appendedAtNanos = appendedAtNanos;
+        }
+    }
+}
@@ -1,13 +1,44 @@
 package com.rent.customer;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Smoke tests of the whole application against the database from `docker-compose.yml`. They use no mocks, so they
+ * also run as a native image with `mvn -PnativeTest test`.
+ */
 @SpringBootTest
+@AutoConfigureMockMvc
 class CustomerApplicationTests {
 
+    @Autowired
+    private MockMvc mockMvc;
+
     @Test
     void contextLoads() {
     }
 
+    /**
+     * Verifies that a lookup goes through admission control, the service, the database and the exception handler,
+     * and answers an unknown id with a {@code 404} problem detail.
+     */
+    @Test
+    void testFindByIdNotFound() throws Exception {
+        final UUID customerId = UUID.randomUUID();
+
+        mockMvc.perform(get("/customer/{customerId}", customerId))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.type").value("urn:problem-type:customer:not-found"))
+                .andExpect(jsonPath("$.customerId").value(customerId.toString()));
+    }
+
 }
@@ -0,0 +1,108 @@
+package com.rent.customer.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link AdaptiveConcurrencyLimiter} class.
+ * These tests verify that the concurrency limit is enforced and adapts to observed latency once per window.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long TARGET = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Verifies that requests beyond the limit are rejected until a slot is released or cancelled.
+     */
+    @Test
+    void testTryAcquireEnforcesLimit() {
+        final AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 2);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release(TARGET, 0);
+        assertTrue(limiter.tryAcquire());
+
+        limiter.cancel();
+        assertTrue(limiter.tryAcquire());
+    }
+
+    /**
+     * Verifies that the limit shrinks at most once per window, when the window's latency percentile rises well
+     * above the baseline, and never below the minimum.
+     */
+    @Test
+    void testReleaseDecreasesLimitOncePerCongestedWindow() {
+        final AdaptiveConcurrencyLimiter limiter = limiter(8, 2, 10);
+        long now = 0;
+
+        now = window(limiter, now, TARGET / 2, 1);
+        assertEquals(8, limiter.getLimit());
+
+        now = window(limiter, now, TARGET * 4, 50);
+        assertEquals(4, limiter.getLimit());
+
+        now = window(limiter, now, TARGET * 16, 50);
+        window(limiter, now, TARGET * 64, 50);
+        assertEquals(2, limiter.getLimit());
+    }
+
+    /**
+     * Verifies that an endpoint that is uniformly slower than the target is not held at the minimum limit.
+     */
+    @Test
+    void testReleaseToleratesSteadySlowEndpoint() {
+        final AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 4);
+        long now = 0;
+
+        for (int i = 0; i < 20; i++) {
+            now = window(limiter, now, TARGET * 10, 10);
+        }
+
+        assertEquals(4, limiter.getLimit());
+    }
+
+    /**
+     * Verifies that the limit grows by one per window while a saturated bulkhead stays within the target latency.
+     */
+    @Test
+    void testReleaseIncreasesLimitWhenSaturated() {
+        final AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 3);
+
+        limiter.tryAcquire();
+        limiter.release(TARGET / 2, 0);
+        limiter.tryAcquire();
+        limiter.release(TARGET / 2, WINDOW);
+        assertEquals(3, limiter.getLimit());
+
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        limiter.release(TARGET / 2, 2 * WINDOW);
+        assertEquals(3, limiter.getLimit());
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int initialLimit, int minLimit, int maxLimit) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, TARGET, 0.5, WINDOW, 0.9, 2, 0);
+    }
+
+    // Runs one window of sequential requests of the same latency and returns the time at which it closed
+    private static long window(AdaptiveConcurrencyLimiter limiter, long start, long latencyNanos, int requests) {
+        for (int i = 1; i < requests; i++) {
+            limiter.tryAcquire();
+            limiter.release(latencyNanos, start + i);
+        }
+
+        limiter.tryAcquire();
+        limiter.release(latencyNanos, start + WINDOW);
+        return start + WINDOW;
+    }
+}
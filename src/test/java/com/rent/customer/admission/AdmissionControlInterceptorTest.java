@@ -0,0 +1,178 @@
+package com.rent.customer.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rent.customer.cache.CustomerResponseCache;
+import com.rent.customer.controller.CustomerController;
+import com.rent.customer.handler.GlobalExceptionHandler;
+import com.rent.customer.model.dto.CustomerDTO;
+import com.rent.customer.service.CustomerPurgeService;
+import com.rent.customer.service.CustomerService;
+import com.rent.customer.service.IdempotencyService;
+import jakarta.servlet.Filter;
+import org.apache.catalina.filters.RemoteIpFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unit tests for the {@link AdmissionControlInterceptor} class.
+ * These tests verify, through Spring MVC, that shed requests are answered with {@code 429 Too Many Requests} and a
+ * {@code Retry-After} header, that clients cannot escape or inflate the rate limit, and that clients behind a trusted
+ * proxy are told apart by their forwarded address.
+ */
+class AdmissionControlInterceptorTest {
+
+    @Mock
+    private CustomerService customerService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private CustomerPurgeService customerPurgeService;
+
+    private final AdmissionControlProperties properties = new AdmissionControlProperties();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(customerService.findAll()).thenReturn(Collections.emptyList());
+
+        properties.getRateLimit().setExpensiveCost(1);
+        properties.getRateLimit().setRefillPerSecond(1);
+    }
+
+    /**
+     * Verifies that a client over its rate limit gets a {@code 429} with {@code Retry-After}, whatever
+     * {@code X-Client-Id} it sends.
+     */
+    @Test
+    void testRateLimitReturns429WithRetryAfter() throws Exception {
+        properties.getRateLimit().setCapacity(2);
+
+        final MockMvc mockMvc = mockMvc(new AdmissionControlInterceptor(properties));
+
+        mockMvc.perform(get("/customer").header("X-Client-Id", "a").with(from("10.0.0.1")))
+                .andExpect(status().isFound());
+        mockMvc.perform(get("/customer").header("X-Client-Id", "b").with(from("10.0.0.1")))
+                .andExpect(status().isFound());
+        mockMvc.perform(get("/customer").header("X-Client-Id", "c").with(from("10.0.0.1")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    /**
+     * Verifies that a request rejected by a saturated bulkhead does not spend a token.
+     */
+    @Test
+    void testBulkheadRejectionDoesNotSpendToken() throws Exception {
+        properties.getRateLimit().setCapacity(1);
+        properties.getExpensive().setInitialLimit(1);
+        properties.getExpensive().setMaxLimit(1);
+
+        final AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(properties);
+        final MockMvc mockMvc = mockMvc(interceptor);
+        final AdaptiveConcurrencyLimiter limiter = interceptor.limiter(EndpointClass.EXPENSIVE);
+
+        limiter.tryAcquire();
+        mockMvc.perform(get("/customer").with(from("10.0.0.1")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+
+        limiter.cancel();
+        mockMvc.perform(get("/customer").with(from("10.0.0.1")))
+                .andExpect(status().isFound());
+    }
+
+    /**
+     * Verifies that clients beyond {@code max-clients} share one bucket instead of each getting a fresh one.
+     */
+    @Test
+    void testClientsBeyondMaxShareOverflowBucket() throws Exception {
+        properties.getRateLimit().setCapacity(1);
+        properties.getRateLimit().setMaxClients(1);
+
+        final MockMvc mockMvc = mockMvc(new AdmissionControlInterceptor(properties));
+
+        mockMvc.perform(get("/customer").with(from("10.0.0.1")))
+                .andExpect(status().isFound());
+        mockMvc.perform(get("/customer").with(from("10.0.0.2")))
+                .andExpect(status().isFound());
+        mockMvc.perform(get("/customer").with(from("10.0.0.3")))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    /**
+     * Verifies that cheap requests do not spend tokens by default, so that lookups by id are only bounded by their
+     * bulkhead.
+     */
+    @Test
+    void testCheapRequestsAreNotChargedByDefault() throws Exception {
+        final UUID customerId = UUID.randomUUID();
+        final CustomerDTO customerDTO = new CustomerDTO();
+
+        customerDTO.setId(customerId);
+        when(customerService.findById(customerId)).thenReturn(customerDTO);
+        properties.getRateLimit().setCapacity(1);
+
+        final MockMvc mockMvc = mockMvc(new AdmissionControlInterceptor(properties));
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/customer/{customerId}", customerId).with(from("10.0.0.1")))
+                    .andExpect(status().isFound());
+        }
+    }
+
+    /**
+     * Verifies that, with forwarded headers resolved as {@code server.forward-headers-strategy: native} does, clients
+     * behind the same load balancer get a bucket each, and that a client outside the trusted proxies cannot pick its
+     * address with {@code X-Forwarded-For}.
+     */
+    @Test
+    void testForwardedClientsGetOwnBuckets() throws Exception {
+        properties.getRateLimit().setCapacity(1);
+
+        final MockMvc mockMvc = mockMvc(new AdmissionControlInterceptor(properties), new RemoteIpFilter());
+
+        mockMvc.perform(get("/customer").header("X-Forwarded-For", "203.0.113.1").with(from("10.0.0.1")))
+                .andExpect(status().isFound());
+        mockMvc.perform(get("/customer").header("X-Forwarded-For", "203.0.113.2").with(from("10.0.0.1")))
+                .andExpect(status().isFound());
+
+        mockMvc.perform(get("/customer").header("X-Forwarded-For", "203.0.113.3").with(from("198.51.100.1")))
+                .andExpect(status().isFound());
+        mockMvc.perform(get("/customer").header("X-Forwarded-For", "203.0.113.4").with(from("198.51.100.1")))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    private MockMvc mockMvc(AdmissionControlInterceptor interceptor, Filter... filters) {
+        final CustomerController controller = new CustomerController(customerService, idempotencyService,
+                customerPurgeService, new CustomerResponseCache(new ObjectMapper(), true, 100));
+
+        return MockMvcBuilders.standaloneSetup(controller)
+                .addFilters(filters)
+                .addInterceptors(interceptor)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    private static RequestPostProcessor from(String remoteAddress) {
+        return request -> {
+            request.setRemoteAddr(remoteAddress);
+            return request;
+        };
+    }
+}
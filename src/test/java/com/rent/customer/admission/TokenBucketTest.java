@@ -0,0 +1,57 @@
+package com.rent.customer.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link TokenBucket} class.
+ * These tests verify burst capacity, refill and idle detection.
+ */
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Verifies that a full bucket admits a burst up to its capacity and then reports the wait for the next token.
+     */
+    @Test
+    void testTryAcquireRejectsWhenEmpty() {
+        final TokenBucket bucket = new TokenBucket(2, 1, 0);
+
+        assertEquals(0, bucket.tryAcquire(1, 0));
+        assertEquals(0, bucket.tryAcquire(1, 0));
+        assertTrue(bucket.tryAcquire(1, 0) > 0);
+    }
+
+    /**
+     * Verifies that tokens are refilled at the configured rate without exceeding the capacity.
+     */
+    @Test
+    void testTryAcquireRefills() {
+        final TokenBucket bucket = new TokenBucket(2, 1, 0);
+
+        assertEquals(0, bucket.tryAcquire(2, 0));
+        assertEquals(0, bucket.tryAcquire(1, SECOND + 1000));
+        assertTrue(bucket.tryAcquire(1, SECOND + 1000) > 0);
+        assertEquals(0, bucket.tryAcquire(2, 10 * SECOND));
+        assertTrue(bucket.tryAcquire(1, 10 * SECOND) > 0);
+    }
+
+    /**
+     * Verifies that a bucket is only idle once it is full and unused for the idle timeout.
+     */
+    @Test
+    void testIsIdle() {
+        final TokenBucket bucket = new TokenBucket(2, 1, 0);
+
+        bucket.tryAcquire(2, 0);
+
+        assertFalse(bucket.isIdle(SECOND, SECOND));
+        assertTrue(bucket.isIdle(SECOND, 3 * SECOND));
+    }
+}
@@ -0,0 +1,87 @@
+package com.rent.customer.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link CustomerInvalidationService} class.
+ * These tests verify that notifications are only sequenced and sent by transactions that are about to commit.
+ */
+class CustomerInvalidationServiceTest {
+
+    private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+    private final CustomerInvalidationService invalidationService = new CustomerInvalidationService(
+            new CustomerResponseCache(new ObjectMapper(), true, 10), jdbcTemplate, true, "customer_invalidation");
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * Verifies that a transaction rolling back sends nothing and takes no sequence number, so that the next
+     * committed change follows the previous one without a gap.
+     */
+    @Test
+    void testRollbackLeavesNoSequenceGap() {
+        inTransaction(() -> invalidationService.invalidate(UUID.randomUUID(), 1));
+        complete(false);
+
+        inTransaction(() -> invalidationService.invalidate(UUID.randomUUID(), 2));
+        assertTrue(jdbcTemplate.payloads.isEmpty());
+
+        complete(true);
+        inTransaction(() -> invalidationService.invalidate(UUID.randomUUID(), 3));
+        complete(true);
+
+        assertEquals(2, jdbcTemplate.payloads.size());
+        assertEquals(1, InvalidationMessage.decode(jdbcTemplate.payloads.get(0)).getSequence());
+        assertEquals(2, InvalidationMessage.decode(jdbcTemplate.payloads.get(1)).getSequence());
+    }
+
+    private void inTransaction(Runnable change) {
+        TransactionSynchronizationManager.initSynchronization();
+        change.run();
+    }
+
+    // Runs the synchronizations of the current transaction as the transaction manager would
+    private static void complete(boolean commit) {
+        final List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+        if (commit) {
+            synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(commit
+                ? TransactionSynchronization.STATUS_COMMITTED
+                : TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    // Records the notification payloads instead of sending them
+    private static final class RecordingJdbcTemplate extends JdbcTemplate {
+
+        private final List<String> payloads = new ArrayList<>();
+
+        @Override
+        public <T> T query(String sql, ResultSetExtractor<T> extractor, Object... args) {
+            payloads.add((String) args[1]);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.rent.customer.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rent.customer.model.dto.CustomerDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit tests for the {@link CustomerResponseCache} class.
+ * These tests verify caching, versioned eviction and that loads racing with an eviction are not cached.
+ */
+class CustomerResponseCacheTest {
+
+    private final CustomerResponseCache cache = new CustomerResponseCache(new ObjectMapper(), true, 2);
+
+    /**
+     * Verifies that a customer is loaded once and then served from the cache until a newer version is evicted.
+     */
+    @Test
+    void testGetCachesUntilEvicted() {
+        final CustomerDTO customer = customer(0);
+        final AtomicInteger loads = new AtomicInteger();
+
+        final CustomerResponseCache.CachedResponse first = cache.get(customer.getId(), id -> {
+            loads.incrementAndGet();
+            return customer;
+        });
+
+        assertSame(first, cache.get(customer.getId(), id -> {
+            throw new AssertionError("Must be served from the cache");
+        }));
+
+        cache.evict(customer.getId(), 1);
+        customer.setVersion(1);
+        cache.get(customer.getId(), id -> {
+            loads.incrementAndGet();
+            return customer;
+        });
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * Verifies that an eviction arriving after a newer version was cached leaves that version in place.
+     */
+    @Test
+    void testOutOfOrderEvictionIsIgnored() {
+        final CustomerDTO customer = customer(3);
+
+        cache.get(customer.getId(), id -> customer);
+        cache.evict(customer.getId(), 2);
+
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * Verifies that a customer loaded while it was being updated or deleted is returned but not cached.
+     */
+    @Test
+    void testLoadRacingEvictionIsNotCached() {
+        final CustomerDTO updated = customer(0);
+        final CustomerDTO deleted = customer(0);
+
+        cache.get(updated.getId(), id -> {
+            cache.evict(id, 1);
+            return updated;
+        });
+        cache.get(deleted.getId(), id -> {
+            cache.evictDeleted(Collections.singletonList(id));
+            return deleted;
+        });
+
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Verifies that nothing is cached while suspended, and that a load started before a clear is not cached.
+     */
+    @Test
+    void testSuspendAndClear() {
+        final CustomerDTO customer = customer(0);
+
+        cache.suspend();
+        cache.get(customer.getId(), id -> customer);
+        assertEquals(0, cache.size());
+
+        cache.resume();
+        cache.get(customer.getId(), id -> {
+            cache.clear();
+            return customer;
+        });
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Verifies that warming skips pages read before a clear and stops when the cache is full.
+     */
+    @Test
+    void testWarm() {
+        final long staleStamp = cache.stamp();
+
+        cache.clear();
+        cache.warm(Collections.singletonList(customer(0)), staleStamp);
+        assertEquals(0, cache.size());
+
+        assertFalse(cache.warm(Arrays.asList(customer(0), customer(0), customer(0)), cache.stamp()));
+        assertEquals(2, cache.size());
+    }
+
+    private static CustomerDTO customer(long version) {
+        final CustomerDTO customer = new CustomerDTO();
+
+        customer.setId(UUID.randomUUID());
+        customer.setFirstName("First");
+        customer.setLastName("Last");
+        customer.setEmail("first.last@example.com");
+        customer.setVersion(version);
+
+        return customer;
+    }
+}
@@ -0,0 +1,77 @@
+package com.rent.customer.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link InvalidationMessage} and {@link InvalidationSequenceTracker} classes.
+ * These tests verify the notification payload and the detection of lost notifications.
+ */
+class InvalidationMessageTest {
+
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(2);
+
+    /**
+     * Verifies that large invalidations are split into sequenced messages below the NOTIFY payload limit,
+     * and that each one decodes back.
+     */
+    @Test
+    void testSplitEncodeDecode() {
+        final Map<UUID, Long> versions = new LinkedHashMap<>();
+        final AtomicLong sequence = new AtomicLong();
+
+        for (int i = 0; i < InvalidationMessage.MAX_ENTRIES + 1; i++) {
+            versions.put(UUID.randomUUID(), Long.MAX_VALUE);
+        }
+
+        final List<InvalidationMessage> messages = InvalidationMessage.split("node", sequence::incrementAndGet, versions);
+        final Map<UUID, Long> decoded = new LinkedHashMap<>();
+
+        assertEquals(2, messages.size());
+
+        for (InvalidationMessage message : messages) {
+            final String payload = message.encode();
+            final InvalidationMessage received = InvalidationMessage.decode(payload);
+
+            assertTrue(payload.getBytes(StandardCharsets.UTF_8).length < 8000);
+            assertEquals("node", received.getNodeId());
+            assertEquals(message.getSequence(), received.getSequence());
+            decoded.putAll(received.getVersions());
+        }
+
+        assertEquals(versions, decoded);
+        assertThrows(IllegalArgumentException.class, () -> InvalidationMessage.decode("node;1;not-a-uuid:1"));
+    }
+
+    /**
+     * Verifies that messages reordered within the window are tolerated, and that a gap left open is reported.
+     */
+    @Test
+    void testSequenceGaps() {
+        final InvalidationSequenceTracker tracker = new InvalidationSequenceTracker(WINDOW, TimeUnit.MINUTES.toNanos(10));
+
+        assertFalse(tracker.receive("node", 1, 0));
+        assertFalse(tracker.receive("node", 3, 0));
+        assertFalse(tracker.receive("node", 2, 1));
+        assertFalse(tracker.hasExpiredGap(WINDOW + 1));
+
+        assertFalse(tracker.receive("node", 5, WINDOW));
+        assertFalse(tracker.hasExpiredGap(WINDOW + 1));
+        assertTrue(tracker.hasExpiredGap(2 * WINDOW + 1));
+        assertFalse(tracker.hasExpiredGap(2 * WINDOW + 2));
+
+        assertTrue(tracker.receive("node", 5000, 3 * WINDOW));
+    }
+}
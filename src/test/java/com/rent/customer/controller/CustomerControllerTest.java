@@ -1,21 +1,41 @@
 package com.rent.customer.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rent.customer.cache.CustomerResponseCache;
+import com.rent.customer.exception.InvalidIdempotencyKeyException;
+import com.rent.customer.handler.GlobalExceptionHandler;
+import com.rent.customer.model.IdempotencyRecord;
+import com.rent.customer.model.dto.BulkDeleteRequestDTO;
+import com.rent.customer.model.dto.BulkDeleteResultDTO;
 import com.rent.customer.model.dto.CustomerDTO;
+import com.rent.customer.service.CustomerPurgeService;
 import com.rent.customer.service.CustomerService;
+import com.rent.customer.service.IdempotencyService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.StringJoiner;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
  * Unit tests for the {@link CustomerController} class.
@@ -26,12 +46,19 @@ class CustomerControllerTest {
     @Mock
     private CustomerService customerService;
 
-    @InjectMocks
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private CustomerPurgeService customerPurgeService;
+
     private CustomerController customerController;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        customerController = new CustomerController(customerService, idempotencyService, customerPurgeService,
+                new CustomerResponseCache(new ObjectMapper(), true, 100));
     }
 
     /**
@@ -52,25 +79,55 @@ class CustomerControllerTest {
     }
 
     /**
-     * Tests the {@link CustomerController#findById(UUID)} method.
-     * Verifies that the method returns a customer with HTTP status {@code FOUND}.
+     * Tests the {@link CustomerController#findById(UUID, org.springframework.web.context.request.WebRequest)} method.
+     * Verifies that the method returns the customer as JSON with an ETag and HTTP status {@code FOUND}, and that
+     * the second lookup is served from the cache.
      */
     @Test
-    void testFindById() {
+    void testFindById() throws Exception {
         final UUID customerId = UUID.randomUUID();
         final CustomerDTO customer = new CustomerDTO();
 
+        customer.setId(customerId);
+        customer.setEmail("test@example.com");
+
         when(customerService.findById(customerId)).thenReturn(customer);
 
-        final ResponseEntity<CustomerDTO> response = customerController.findById(customerId);
+        final ResponseEntity<byte[]> response = customerController.findById(customerId, newRequest());
+        final ResponseEntity<byte[]> cachedResponse = customerController.findById(customerId, newRequest());
 
         assertEquals(HttpStatus.FOUND, response.getStatusCode());
-        assertEquals(customer, response.getBody());
+        assertEquals(new ObjectMapper().writeValueAsString(customer), new String(response.getBody()));
+        assertEquals(response.getHeaders().getETag(), cachedResponse.getHeaders().getETag());
         verify(customerService, times(1)).findById(customerId);
     }
 
     /**
-     * Tests the {@link CustomerController#create(CustomerDTO)} method.
+     * Tests the {@link CustomerController#findById(UUID, org.springframework.web.context.request.WebRequest)} method
+     * with a matching {@code If-None-Match} header.
+     * Verifies that the response is completed as {@code NOT_MODIFIED} without a body.
+     */
+    @Test
+    void testFindByIdNotModified() {
+        final UUID customerId = UUID.randomUUID();
+        final CustomerDTO customer = new CustomerDTO();
+
+        customer.setId(customerId);
+
+        when(customerService.findById(customerId)).thenReturn(customer);
+
+        final String eTag = customerController.findById(customerId, newRequest()).getHeaders().getETag();
+        final MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/customer/" + customerId);
+        final MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+        servletRequest.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+
+        assertNull(customerController.findById(customerId, new ServletWebRequest(servletRequest, servletResponse)));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), servletResponse.getStatus());
+    }
+
+    /**
+     * Tests the {@link CustomerController#create(CustomerDTO, String)} method.
      * Verifies that the method returns the created customer's ID with HTTP status {@code CREATED}.
      */
     @Test
@@ -80,11 +137,44 @@ class CustomerControllerTest {
 
         when(customerService.create(customerDTO)).thenReturn(customerId);
 
-        final ResponseEntity<UUID> response = customerController.create(customerDTO);
+        final ResponseEntity<UUID> response = customerController.create(customerDTO, null);
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertEquals(customerId, response.getBody());
         verify(customerService, times(1)).create(customerDTO);
+        verifyNoInteractions(idempotencyService);
+    }
+
+    /**
+     * Tests the {@link CustomerController#create(CustomerDTO, String)} method with an idempotency key.
+     * Verifies that the creation is delegated to the {@link IdempotencyService}.
+     */
+    @Test
+    void testCreateWithIdempotencyKey() {
+        final CustomerDTO customerDTO = new CustomerDTO();
+        final UUID customerId = UUID.randomUUID();
+
+        when(idempotencyService.execute(eq("key-1"), eq(customerDTO), any())).thenReturn(customerId);
+
+        final ResponseEntity<UUID> response = customerController.create(customerDTO, "key-1");
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(customerId, response.getBody());
+        verify(customerService, never()).create(customerDTO);
+    }
+
+    /**
+     * Tests the {@link CustomerController#create(CustomerDTO, String)} method with an idempotency key too long to
+     * be stored.
+     * Verifies that an {@link InvalidIdempotencyKeyException} is thrown before anything is created.
+     */
+    @Test
+    void testCreateRejectsOverlongIdempotencyKey() {
+        final CustomerDTO customerDTO = new CustomerDTO();
+        final String idempotencyKey = "k".repeat(IdempotencyRecord.MAX_KEY_LENGTH + 1);
+
+        assertThrows(InvalidIdempotencyKeyException.class, () -> customerController.create(customerDTO, idempotencyKey));
+        verifyNoInteractions(idempotencyService, customerService);
     }
 
     /**
@@ -114,4 +204,48 @@ class CustomerControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(customerService, times(1)).delete(customerId);
     }
+
+    /**
+     * Tests the {@link CustomerController#deleteAll(BulkDeleteRequestDTO)} method.
+     * Verifies that the method returns the bulk delete result with HTTP status {@code OK}.
+     */
+    @Test
+    void testDeleteAll() {
+        final BulkDeleteRequestDTO request = new BulkDeleteRequestDTO();
+        final BulkDeleteResultDTO result = new BulkDeleteResultDTO(1, Collections.emptyList());
+
+        request.setIds(Collections.singletonList(UUID.randomUUID()));
+
+        when(customerPurgeService.delete(request)).thenReturn(result);
+
+        final ResponseEntity<BulkDeleteResultDTO> response = customerController.deleteAll(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(result, response.getBody());
+    }
+
+    /**
+     * Tests the {@link CustomerController#deleteAll(BulkDeleteRequestDTO)} method through Spring MVC.
+     * Verifies that a request with more than {@link BulkDeleteRequestDTO#MAX_IDS} identifiers is rejected with
+     * {@code 400 Bad Request} before reaching the database.
+     */
+    @Test
+    void testDeleteAllRejectsTooManyIds() throws Exception {
+        final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(customerController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        final StringJoiner ids = new StringJoiner("\",\"", "{\"ids\":[\"", "\"]}");
+
+        for (int i = 0; i <= BulkDeleteRequestDTO.MAX_IDS; i++) {
+            ids.add(UUID.randomUUID().toString());
+        }
+
+        mockMvc.perform(delete("/customer").contentType(MediaType.APPLICATION_JSON).content(ids.toString()))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(customerPurgeService);
+    }
+
+    private static ServletWebRequest newRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/customer"), new MockHttpServletResponse());
+    }
 }
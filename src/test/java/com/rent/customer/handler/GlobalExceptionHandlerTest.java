@@ -2,9 +2,17 @@ package com.rent.customer.handler;
 
 import com.rent.customer.exception.CustomerAlreadyExistsException;
 import com.rent.customer.exception.CustomerNotFoundException;
+import com.rent.customer.exception.IdempotentRequestInProgressException;
+import com.rent.customer.exception.InvalidIdempotencyKeyException;
+import com.rent.customer.exception.TooManyRequestsException;
+import com.rent.customer.exception.WriteAheadLogFullException;
+import com.rent.customer.model.Customer;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.util.UUID;
 
@@ -20,26 +28,102 @@ class GlobalExceptionHandlerTest {
 
     /**
      * Tests the {@link GlobalExceptionHandler#handleCustomerNotFound(CustomerNotFoundException)} method.
-     * Verifies that the method returns a {@code 404 Not Found} response.
+     * Verifies that the method returns a {@code 404 Not Found} problem detail carrying the customer id.
      */
     @Test
     void testHandleCustomerNotFound() {
-        final CustomerNotFoundException exception = new CustomerNotFoundException(UUID.randomUUID());
-        final ResponseEntity<String> response = exceptionHandler.handleCustomerNotFound(exception);
+        final UUID customerId = UUID.randomUUID();
+        final CustomerNotFoundException exception = new CustomerNotFoundException(customerId);
+        final ResponseEntity<ProblemDetail> response = exceptionHandler.handleCustomerNotFound(exception);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(404, response.getBody().getStatus());
+        assertEquals("Customer not found", response.getBody().getDetail());
+        assertEquals(customerId, response.getBody().getProperties().get("customerId"));
+    }
+
+    /**
+     * Verifies that expected domain exceptions do not capture a stack trace.
+     */
+    @Test
+    void testDomainExceptionsAreStackless() {
+        assertEquals(0, new CustomerNotFoundException(UUID.randomUUID()).getStackTrace().length);
+        assertEquals(0, new CustomerAlreadyExistsException("test@example.com").getStackTrace().length);
     }
 
     /**
      * Tests the {@link GlobalExceptionHandler#handleCustomerAlreadyExists(CustomerAlreadyExistsException)} method.
-     * Verifies that the method returns a {@code 208 Already Reported} response.
+     * Verifies that the method returns a {@code 409 Conflict} problem detail carrying the email.
      */
     @Test
     void testHandleCustomerAlreadyExists() {
         final CustomerAlreadyExistsException exception = new CustomerAlreadyExistsException("test@example.com");
-        final ResponseEntity<String> response = exceptionHandler.handleCustomerAlreadyExists(exception);
+        final ResponseEntity<ProblemDetail> response = exceptionHandler.handleCustomerAlreadyExists(exception);
 
-        assertEquals(HttpStatus.ALREADY_REPORTED, response.getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("test@example.com", response.getBody().getProperties().get("email"));
+    }
+
+    /**
+     * Tests the {@link GlobalExceptionHandler#handleInvalidIdempotencyKey(InvalidIdempotencyKeyException)} method.
+     * Verifies that the method returns a {@code 400 Bad Request} problem detail.
+     */
+    @Test
+    void testHandleInvalidIdempotencyKey() {
+        final ResponseEntity<ProblemDetail> response = exceptionHandler.handleInvalidIdempotencyKey(
+                new InvalidIdempotencyKeyException(255));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("urn:problem-type:customer:invalid-idempotency-key", response.getBody().getType().toString());
+    }
+
+    /**
+     * Tests the {@link GlobalExceptionHandler#handleIdempotentRequestInProgress(IdempotentRequestInProgressException)}
+     * method. Verifies that the method returns a {@code 409 Conflict} response.
+     */
+    @Test
+    void testHandleIdempotentRequestInProgress() {
+        final ResponseEntity<ProblemDetail> response = exceptionHandler.handleIdempotentRequestInProgress(
+                new IdempotentRequestInProgressException("key-1"));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
     }
-}
 
+    /**
+     * Tests the {@link GlobalExceptionHandler#handleOptimisticLockingFailure} method.
+     * Verifies that a write lost to concurrent ones returns a {@code 409 Conflict} problem detail.
+     */
+    @Test
+    void testHandleOptimisticLockingFailure() {
+        final ResponseEntity<ProblemDetail> response = exceptionHandler.handleOptimisticLockingFailure(
+                new ObjectOptimisticLockingFailureException(Customer.class, UUID.randomUUID()));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("urn:problem-type:customer:concurrent-modification", response.getBody().getType().toString());
+    }
+
+    /**
+     * Tests the {@link GlobalExceptionHandler#handleWriteAheadLogFull(WriteAheadLogFullException)} method.
+     * Verifies that the method returns a {@code 503 Service Unavailable} response.
+     */
+    @Test
+    void testHandleWriteAheadLogFull() {
+        final ResponseEntity<ProblemDetail> response = exceptionHandler.handleWriteAheadLogFull(
+                new WriteAheadLogFullException());
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    }
+
+    /**
+     * Tests the {@link GlobalExceptionHandler#handleTooManyRequests(TooManyRequestsException)} method.
+     * Verifies that the method returns a {@code 429 Too Many Requests} response with a {@code Retry-After} header.
+     */
+    @Test
+    void testHandleTooManyRequests() {
+        final TooManyRequestsException exception = new TooManyRequestsException("Rate limit exceeded", 3);
+        final ResponseEntity<ProblemDetail> response = exceptionHandler.handleTooManyRequests(exception);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("3", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+}
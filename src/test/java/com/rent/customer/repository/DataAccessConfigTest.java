@@ -0,0 +1,76 @@
+package com.rent.customer.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for the {@link DataAccessConfig} class.
+ * These tests verify how the connection pool is sized, and that explicit HikariCP settings are never overridden.
+ */
+class DataAccessConfigTest {
+
+    /**
+     * Verifies that the pool size is derived from the processor count unless configured, and never below the
+     * minimum when derived.
+     */
+    @Test
+    void testPoolSize() {
+        assertEquals(8, DataAccessConfig.poolSize(0, 2, 4, 1));
+        assertEquals(12, DataAccessConfig.poolSize(12, 2, 4, 1));
+        assertEquals(1, DataAccessConfig.poolSize(0, 0, 4, 1));
+        assertEquals(5, DataAccessConfig.poolSize(0, 2, 2, 5));
+        assertEquals(3, DataAccessConfig.poolSize(3, 2, 2, 5));
+    }
+
+    /**
+     * Verifies that a derived pool is fixed-size, and leaves room for a partitioned scan.
+     */
+    @Test
+    void testSizePoolDerivesSize() {
+        final HikariDataSource dataSource = new HikariDataSource();
+
+        DataAccessConfig.sizePool(dataSource, new MockEnvironment()
+                .withProperty("customer.partitioning.enabled", "true")
+                .withProperty("customer.partitioning.parallelism", "4"), 2);
+
+        assertEquals(5, dataSource.getMaximumPoolSize());
+        assertEquals(5, dataSource.getMinimumIdle());
+    }
+
+    /**
+     * Verifies that an explicit {@code maximum-pool-size} is left untouched, even with {@code pool-size} set.
+     */
+    @Test
+    void testSizePoolKeepsExplicitMaximumPoolSize() {
+        final HikariDataSource dataSource = new HikariDataSource();
+
+        dataSource.setMaximumPoolSize(30);
+        dataSource.setMinimumIdle(10);
+
+        DataAccessConfig.sizePool(dataSource, new MockEnvironment()
+                .withProperty(DataAccessConfig.MAXIMUM_POOL_SIZE, "30")
+                .withProperty("customer.data-access.pool-size", "4"), 2);
+
+        assertEquals(30, dataSource.getMaximumPoolSize());
+        assertEquals(10, dataSource.getMinimumIdle());
+    }
+
+    /**
+     * Verifies that an explicit {@code minimum-idle} is left untouched when the maximum is derived.
+     */
+    @Test
+    void testSizePoolKeepsExplicitMinimumIdle() {
+        final HikariDataSource dataSource = new HikariDataSource();
+
+        dataSource.setMinimumIdle(2);
+
+        DataAccessConfig.sizePool(dataSource, new MockEnvironment()
+                .withProperty(DataAccessConfig.MINIMUM_IDLE, "2"), 4);
+
+        assertEquals(8, dataSource.getMaximumPoolSize());
+        assertEquals(2, dataSource.getMinimumIdle());
+    }
+}
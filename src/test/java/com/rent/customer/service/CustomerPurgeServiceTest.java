@@ -0,0 +1,152 @@
+package com.rent.customer.service;
+
+import com.rent.customer.cache.CustomerInvalidationService;
+import com.rent.customer.model.dto.BulkDeleteRequestDTO;
+import com.rent.customer.model.dto.BulkDeleteResultDTO;
+import com.rent.customer.repository.CustomerBulkRepository;
+import com.rent.customer.writebehind.WriteBehindService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link CustomerPurgeService} class.
+ * These tests verify that bulk deletes are chunked, report missing identifiers, and drop matching customers still
+ * waiting to be written behind.
+ */
+class CustomerPurgeServiceTest {
+
+    @Mock
+    private CustomerBulkRepository customerBulkRepository;
+
+    @Mock
+    private CustomerPartitionService customerPartitionService;
+
+    @Mock
+    private CustomerInvalidationService customerInvalidationService;
+
+    @Mock
+    private WriteBehindService writeBehindService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CustomerPurgeService customerPurgeService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        customerPurgeService = new CustomerPurgeService(customerBulkRepository, customerPartitionService,
+                customerInvalidationService, writeBehindService, transactionManager, 2);
+    }
+
+    /**
+     * Tests the {@link CustomerPurgeService#delete(BulkDeleteRequestDTO)} method with identifiers.
+     * Verifies that identifiers are deduplicated, deleted in chunks, and that missing ones are reported.
+     */
+    @Test
+    void testDeleteByIds() {
+        final UUID first = UUID.randomUUID();
+        final UUID second = UUID.randomUUID();
+        final UUID missing = UUID.randomUUID();
+        final BulkDeleteRequestDTO request = new BulkDeleteRequestDTO();
+
+        request.setIds(Arrays.asList(first, second, first, missing));
+
+        when(customerBulkRepository.deleteByIds(Arrays.asList(first, second))).thenReturn(Arrays.asList(first, second));
+        when(customerBulkRepository.deleteByIds(Collections.singletonList(missing))).thenReturn(Collections.emptyList());
+
+        final BulkDeleteResultDTO result = customerPurgeService.delete(request);
+
+        assertEquals(2, result.getDeleted());
+        assertEquals(Collections.singletonList(missing), result.getMissingIds());
+        verify(customerBulkRepository, times(2)).deleteByIds(anyList());
+        verify(transactionManager, times(2)).commit(any());
+        verify(customerInvalidationService).invalidateDeleted(Arrays.asList(first, second));
+    }
+
+    /**
+     * Tests the {@link CustomerPurgeService#delete(BulkDeleteRequestDTO)} method with an email domain.
+     * Verifies that matching identifiers are paged by identifier until a short page is returned.
+     */
+    @Test
+    void testDeleteByEmailDomain() {
+        final List<UUID> firstPage = Arrays.asList(UUID.randomUUID(), UUID.randomUUID());
+        final List<UUID> secondPage = Collections.singletonList(UUID.randomUUID());
+        final BulkDeleteRequestDTO request = new BulkDeleteRequestDTO();
+
+        request.setEmailDomain("example.com");
+
+        when(customerBulkRepository.findIdsByEmailDomain("example.com", null, 2)).thenReturn(firstPage);
+        when(customerBulkRepository.findIdsByEmailDomain("example.com", firstPage.get(1), 2)).thenReturn(secondPage);
+        when(customerBulkRepository.deleteByIds(firstPage)).thenReturn(firstPage);
+        when(customerBulkRepository.deleteByIds(secondPage)).thenReturn(secondPage);
+
+        final BulkDeleteResultDTO result = customerPurgeService.delete(request);
+
+        assertEquals(3, result.getDeleted());
+        assertEquals(Collections.emptyList(), result.getMissingIds());
+    }
+
+    /**
+     * Tests the {@link CustomerPurgeService#delete(BulkDeleteRequestDTO)} method with identifiers of customers that
+     * are not flushed yet.
+     * Verifies that they are dropped from the backlog before the chunk is deleted, and reported as deleted.
+     */
+    @Test
+    void testDeleteByIdsWhilePending() {
+        final UUID flushed = UUID.randomUUID();
+        final UUID pending = UUID.randomUUID();
+        final List<UUID> chunk = Arrays.asList(flushed, pending);
+        final BulkDeleteRequestDTO request = new BulkDeleteRequestDTO();
+
+        request.setIds(chunk);
+
+        when(writeBehindService.discard(chunk)).thenReturn(Collections.singletonList(pending));
+        when(customerBulkRepository.deleteByIds(chunk)).thenReturn(Collections.singletonList(flushed));
+
+        final BulkDeleteResultDTO result = customerPurgeService.delete(request);
+
+        assertEquals(2, result.getDeleted());
+        assertEquals(Collections.emptyList(), result.getMissingIds());
+
+        final InOrder inOrder = inOrder(writeBehindService, customerBulkRepository);
+
+        inOrder.verify(writeBehindService).discard(chunk);
+        inOrder.verify(customerBulkRepository).deleteByIds(chunk);
+        verify(customerInvalidationService).invalidateDeleted(chunk);
+    }
+
+    /**
+     * Tests the {@link CustomerPurgeService#delete(BulkDeleteRequestDTO)} method with an email domain matching a
+     * customer that is not flushed yet.
+     * Verifies that it is dropped from the backlog, evicted and counted, even though the database does not hold it.
+     */
+    @Test
+    void testDeleteByEmailDomainWhilePending() {
+        final UUID pending = UUID.randomUUID();
+        final BulkDeleteRequestDTO request = new BulkDeleteRequestDTO();
+
+        request.setEmailDomain("example.com");
+
+        when(writeBehindService.discardByEmailDomain("example.com")).thenReturn(Collections.singletonList(pending));
+        when(customerBulkRepository.findIdsByEmailDomain("example.com", null, 2)).thenReturn(Collections.emptyList());
+
+        final BulkDeleteResultDTO result = customerPurgeService.delete(request);
+
+        assertEquals(1, result.getDeleted());
+        verify(customerInvalidationService).invalidateDeleted(Collections.singletonList(pending));
+        verify(customerBulkRepository, never()).deleteByIds(anyList());
+    }
+}
@@ -1,17 +1,32 @@
 package com.rent.customer.service;
 
+import com.rent.customer.cache.CustomerInvalidationService;
 import com.rent.customer.exception.CustomerAlreadyExistsException;
 import com.rent.customer.exception.CustomerNotFoundException;
 import com.rent.customer.model.Customer;
 import com.rent.customer.model.dto.CustomerDTO;
 import com.rent.customer.repository.CustomerRepository;
+import com.rent.customer.writebehind.WriteBehindService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 
+import java.sql.SQLException;
+import java.util.Collections;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -28,6 +43,18 @@ public class CustomerServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private CustomerPartitionService customerPartitionService;
+
+    @Mock
+    private WriteBehindService writeBehindService;
+
+    @Mock
+    private CustomerInvalidationService customerInvalidationService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private CustomerService customerService;
 
@@ -83,4 +110,256 @@ public class CustomerServiceTest {
         assertThrows(CustomerAlreadyExistsException.class, () -> customerService.create(customerDTO));
         verify(customerRepository, times(1)).findByEmail(customerDTO.getEmail());
     }
+
+    /**
+     * Tests the {@link CustomerService#create(CustomerDTO)} method on a partitioned table.
+     * Verifies that the e-mail registry is used to detect an existing customer.
+     */
+    @Test
+    void testCreateAlreadyExistsPartitioned() {
+        final CustomerDTO customerDTO = new CustomerDTO();
+
+        customerDTO.setEmail("test@example.com");
+
+        when(customerPartitionService.isEnabled()).thenReturn(true);
+        when(customerPartitionService.findIdByEmail(customerDTO.getEmail())).thenReturn(Optional.of(UUID.randomUUID()));
+
+        assertThrows(CustomerAlreadyExistsException.class, () -> customerService.create(customerDTO));
+        verify(customerRepository, never()).findByEmail(customerDTO.getEmail());
+    }
+
+    /**
+     * Verifies, through the same transactional proxy Spring puts in front of the service, that
+     * {@link CustomerService#findById(UUID)} loads the customer within a read-only transaction, and that
+     * {@link CustomerService#findAll()} does not hold a transaction, and its connection, across the partition reads.
+     */
+    @Test
+    void testReadTransactions() {
+        final CustomerService proxy = transactionalProxy();
+        final UUID customerId = UUID.randomUUID();
+        final InOrder inOrder = inOrder(transactionManager, customerRepository);
+
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(customerRepository.findById(customerId)).thenReturn(Optional.of(new Customer()));
+
+        proxy.findById(customerId);
+
+        inOrder.verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        inOrder.verify(customerRepository).findById(customerId);
+        inOrder.verify(transactionManager).commit(any());
+
+        reset(transactionManager);
+        when(customerPartitionService.isEnabled()).thenReturn(true);
+        when(customerPartitionService.findAll()).thenReturn(Collections.singletonList(new Customer()));
+
+        proxy.findAll();
+
+        verify(customerPartitionService).findAll();
+        verifyNoInteractions(transactionManager);
+    }
+
+    /**
+     * Tests the {@link CustomerService#create(CustomerDTO)} method.
+     * Verifies that a violation of the e-mail registry, raised when a concurrent request registered the same e-mail,
+     * is reported as a {@link CustomerAlreadyExistsException}.
+     */
+    @Test
+    void testCreateEmailRegistryViolation() {
+        final CustomerDTO customerDTO = new CustomerDTO();
+
+        customerDTO.setEmail("test@example.com");
+
+        when(customerRepository.save(any(Customer.class)))
+                .thenThrow(integrityViolation("23505", "t_customer_email_pkey"));
+
+        assertThrows(CustomerAlreadyExistsException.class, () -> customerService.create(customerDTO));
+    }
+
+    /**
+     * Tests the {@link CustomerService#create(CustomerDTO)} method.
+     * Verifies that an integrity violation unrelated to the e-mail is rethrown rather than reported as a conflict.
+     */
+    @Test
+    void testCreateOtherIntegrityViolation() {
+        final CustomerDTO customerDTO = new CustomerDTO();
+
+        customerDTO.setEmail("test@example.com");
+
+        when(customerRepository.save(any(Customer.class)))
+                .thenThrow(integrityViolation("23502", "t_customer_pkey"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> customerService.create(customerDTO));
+    }
+
+    /**
+     * Tests the {@link CustomerService#create(CustomerDTO)} method in write-behind mode.
+     * Verifies that the customer is handed to the write-behind log with an assigned id instead of being saved.
+     */
+    @Test
+    void testCreateWriteBehind() {
+        final CustomerDTO customerDTO = new CustomerDTO();
+
+        customerDTO.setEmail("test@example.com");
+
+        when(customerRepository.findByEmail(customerDTO.getEmail())).thenReturn(Optional.empty());
+        when(writeBehindService.isEnabled()).thenReturn(true);
+        when(writeBehindService.create(any(Customer.class))).thenAnswer(invocation ->
+                invocation.getArgument(0, Customer.class).getId());
+
+        assertNotNull(customerService.create(customerDTO));
+        verify(customerRepository, never()).save(any(Customer.class));
+    }
+
+    /**
+     * Tests the {@link CustomerService#findById(UUID)} method in write-behind mode.
+     * Verifies that a customer not flushed yet is found without querying the database.
+     */
+    @Test
+    void testFindByIdPending() {
+        final UUID customerId = UUID.randomUUID();
+
+        when(writeBehindService.find(customerId)).thenReturn(Optional.of(new Customer()));
+
+        assertNotNull(customerService.findById(customerId));
+        verify(customerRepository, never()).findById(customerId);
+    }
+
+    /**
+     * Tests the {@link CustomerService#delete(UUID)} method.
+     * Verifies that the deleted customer is invalidated in the response caches.
+     */
+    @Test
+    void testDeleteEvictsCachedResponse() {
+        final UUID customerId = UUID.randomUUID();
+        final Customer customer = new Customer();
+
+        customer.setId(customerId);
+
+        when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
+
+        customerService.delete(customerId);
+
+        verify(customerRepository).delete(customer);
+        verify(customerInvalidationService).invalidateDeleted(Collections.singletonList(customerId));
+    }
+
+    /**
+     * Tests the {@link CustomerService#delete(UUID)} method in write-behind mode.
+     * Verifies that a pending customer is flushed before the delete's transaction opens, not within it.
+     */
+    @Test
+    void testDeleteFlushesBeforeTransaction() {
+        final UUID customerId = UUID.randomUUID();
+        final Customer customer = new Customer();
+
+        customer.setId(customerId);
+
+        when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
+
+        customerService.delete(customerId);
+
+        final InOrder inOrder = inOrder(writeBehindService, transactionManager, customerRepository);
+
+        inOrder.verify(writeBehindService).flushIfPending(customerId);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(customerRepository).delete(customer);
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    /**
+     * Tests the {@link CustomerService#update(CustomerDTO)} method.
+     * Verifies that an update losing to a concurrent write is applied again in a new transaction.
+     */
+    @Test
+    void testUpdateRetriesConcurrentModification() {
+        final CustomerDTO customerDTO = customerDTO();
+        final Customer customer = new Customer();
+
+        customer.setId(customerDTO.getId());
+        customer.setEmail(customerDTO.getEmail());
+
+        when(customerRepository.findById(customerDTO.getId())).thenReturn(Optional.of(customer));
+        when(customerRepository.saveAndFlush(customer))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Customer.class, customerDTO.getId()))
+                .thenReturn(customer);
+
+        customerService.update(customerDTO);
+
+        verify(customerRepository, times(2)).saveAndFlush(customer);
+        verify(transactionManager).rollback(any());
+        verify(transactionManager).commit(any());
+        verify(customerInvalidationService).invalidate(eq(customerDTO.getId()), anyLong());
+    }
+
+    /**
+     * Tests the {@link CustomerService#update(CustomerDTO)} method.
+     * Verifies that the conflict is reported once concurrent writes have won every attempt.
+     */
+    @Test
+    void testUpdateGivesUpOnConcurrentModification() {
+        final CustomerDTO customerDTO = customerDTO();
+        final Customer customer = new Customer();
+
+        customer.setId(customerDTO.getId());
+        customer.setEmail(customerDTO.getEmail());
+
+        when(customerRepository.findById(customerDTO.getId())).thenReturn(Optional.of(customer));
+        when(customerRepository.saveAndFlush(customer))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Customer.class, customerDTO.getId()));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> customerService.update(customerDTO));
+        verify(customerRepository, times(3)).saveAndFlush(customer);
+        verify(customerInvalidationService, never()).invalidate(any(), anyLong());
+    }
+
+    /**
+     * Tests the {@link CustomerService#update(CustomerDTO)} method.
+     * Verifies that a violation of the e-mail registry, raised when a concurrent request registered the new e-mail,
+     * is reported as a {@link CustomerAlreadyExistsException} rather than retried or rethrown.
+     */
+    @Test
+    void testUpdateEmailRegistryViolation() {
+        final CustomerDTO customerDTO = customerDTO();
+        final Customer customer = new Customer();
+
+        customer.setId(customerDTO.getId());
+        customer.setEmail("previous@example.com");
+
+        when(customerRepository.findById(customerDTO.getId())).thenReturn(Optional.of(customer));
+        when(customerRepository.findByEmail(customerDTO.getEmail())).thenReturn(Optional.empty());
+        when(customerRepository.saveAndFlush(customer))
+                .thenThrow(integrityViolation("23505", "t_customer_email_pkey"));
+
+        assertThrows(CustomerAlreadyExistsException.class, () -> customerService.update(customerDTO));
+        verify(customerRepository, times(1)).saveAndFlush(customer);
+        verify(transactionManager).rollback(any());
+    }
+
+    // Wraps the service the way the application context does, so that its @Transactional attributes take effect
+    private CustomerService transactionalProxy() {
+        final TransactionInterceptor transactionInterceptor = new TransactionInterceptor();
+        final ProxyFactory proxyFactory = new ProxyFactory(customerService);
+
+        transactionInterceptor.setTransactionManager(transactionManager);
+        transactionInterceptor.setTransactionAttributeSource(new AnnotationTransactionAttributeSource());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(transactionInterceptor);
+        return (CustomerService) proxyFactory.getProxy();
+    }
+
+    private static CustomerDTO customerDTO() {
+        final CustomerDTO customerDTO = new CustomerDTO();
+
+        customerDTO.setId(UUID.randomUUID());
+        customerDTO.setFirstName("John");
+        customerDTO.setLastName("Doe");
+        customerDTO.setEmail("test@example.com");
+        return customerDTO;
+    }
+
+    private static DataIntegrityViolationException integrityViolation(String sqlState, String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement",
+                        new SQLException("violation", sqlState), constraintName));
+    }
 }
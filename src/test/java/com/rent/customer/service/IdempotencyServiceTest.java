@@ -0,0 +1,230 @@
+package com.rent.customer.service;
+
+import com.rent.customer.exception.IdempotencyKeyReusedException;
+import com.rent.customer.exception.IdempotentRequestInProgressException;
+import com.rent.customer.idempotency.InMemoryIdempotencyStore;
+import com.rent.customer.model.dto.CustomerDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link IdempotencyService} class.
+ * These tests verify that requests sharing an idempotency key are executed only once.
+ */
+class IdempotencyServiceTest {
+
+    private InMemoryIdempotencyStore store;
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryIdempotencyStore(100, Duration.ofHours(1), Duration.ofSeconds(30));
+        idempotencyService = new IdempotencyService(store, Duration.ofSeconds(5));
+    }
+
+    /**
+     * Verifies that a retried request is replayed without executing the action again.
+     */
+    @Test
+    void testExecuteReplaysCompletedRequest() {
+        final CustomerDTO customerDTO = customer("test@example.com");
+        final AtomicInteger executions = new AtomicInteger();
+        final UUID customerId = UUID.randomUUID();
+
+        final UUID first = idempotencyService.execute("key-1", customerDTO, () -> {
+            executions.incrementAndGet();
+            return customerId;
+        });
+        final UUID second = idempotencyService.execute("key-1", customerDTO, () -> {
+            executions.incrementAndGet();
+            return UUID.randomUUID();
+        });
+
+        assertEquals(customerId, first);
+        assertEquals(customerId, second);
+        assertEquals(1, executions.get());
+    }
+
+    /**
+     * Verifies that reusing a key with a different payload throws an {@link IdempotencyKeyReusedException}.
+     */
+    @Test
+    void testExecuteRejectsReusedKey() {
+        idempotencyService.execute("key-1", customer("test@example.com"), UUID::randomUUID);
+
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotencyService.execute("key-1", customer("other@example.com"), UUID::randomUUID));
+    }
+
+    /**
+     * Verifies that payloads with colliding `hashCode`s ("Aa" and "BB") are still told apart.
+     */
+    @Test
+    void testExecuteRejectsCollidingPayload() {
+        final CustomerDTO original = customer("test@example.com");
+        final CustomerDTO colliding = customer("test@example.com");
+
+        original.setFirstName("Aa");
+        colliding.setFirstName("BB");
+        idempotencyService.execute("key-1", original, UUID::randomUUID);
+
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotencyService.execute("key-1", colliding, UUID::randomUUID));
+    }
+
+    /**
+     * Verifies that a key reserved by a request running on another instance is not executed again, and that a
+     * failed request releases its key for a retry.
+     */
+    @Test
+    void testExecuteHonoursReservation() {
+        final CustomerDTO customerDTO = customer("test@example.com");
+        final UUID customerId = UUID.randomUUID();
+
+        assertTrue(store.reserve("key-1", IdempotencyService.requestDigest(customerDTO)));
+        assertThrows(IdempotentRequestInProgressException.class,
+                () -> idempotencyService.execute("key-1", customerDTO, () -> {
+                    throw new AssertionError("Must not run while reserved");
+                }));
+
+        store.release("key-1", IdempotencyService.requestDigest(customerDTO));
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("key-1", customerDTO, () -> {
+            throw new IllegalStateException("Database unavailable");
+        }));
+        assertEquals(customerId, idempotencyService.execute("key-1", customerDTO, () -> customerId));
+    }
+
+    /**
+     * Verifies that a full store evicts completed records only, so that a request still running is not run again
+     * by a duplicate.
+     */
+    @Test
+    void testStoreKeepsRunningReservationWhenFull() {
+        final InMemoryIdempotencyStore boundedStore = new InMemoryIdempotencyStore(1, Duration.ofHours(1),
+                Duration.ofSeconds(30));
+
+        assertTrue(boundedStore.reserve("running", "digest-1"));
+        assertTrue(boundedStore.reserve("completed", "digest-2"));
+        assertTrue(boundedStore.complete("completed", "digest-2", UUID.randomUUID()));
+        assertTrue(boundedStore.reserve("next", "digest-3"));
+
+        assertFalse(boundedStore.reserve("running", "digest-1"));
+        assertFalse(boundedStore.find("completed").isPresent());
+    }
+
+    /**
+     * Verifies that a request whose reservation was taken over by another request cannot complete or release it.
+     */
+    @Test
+    void testStoreIgnoresOutcomeOfTakenOverReservation() {
+        assertTrue(store.reserve("key-1", "digest-1"));
+
+        assertFalse(store.complete("key-1", "digest-2", UUID.randomUUID()));
+        store.release("key-1", "digest-2");
+        assertFalse(store.reserve("key-1", "digest-1"));
+
+        final UUID customerId = UUID.randomUUID();
+        assertTrue(store.complete("key-1", "digest-1", customerId));
+        assertFalse(store.complete("key-1", "digest-1", UUID.randomUUID()));
+        assertEquals(customerId, store.find("key-1").orElseThrow().getCustomerId());
+    }
+
+    /**
+     * Verifies that a duplicate arriving while the original is in flight waits for its outcome.
+     */
+    @Test
+    void testExecuteWaitsForInFlightRequest() throws Exception {
+        final CustomerDTO customerDTO = customer("test@example.com");
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger executions = new AtomicInteger();
+        final UUID customerId = UUID.randomUUID();
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            final Future<UUID> original = executor.submit(() -> idempotencyService.execute("key-1", customerDTO, () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                await(release);
+                return customerId;
+            }));
+
+            started.await(5, TimeUnit.SECONDS);
+
+            final Future<UUID> duplicate = executor.submit(() -> idempotencyService.execute("key-1", customerDTO, () -> {
+                executions.incrementAndGet();
+                return UUID.randomUUID();
+            }));
+
+            // The duplicate cannot complete before the original does
+            assertThrows(TimeoutException.class, () -> duplicate.get(200, TimeUnit.MILLISECONDS));
+            release.countDown();
+
+            assertEquals(customerId, original.get(5, TimeUnit.SECONDS));
+            assertEquals(customerId, duplicate.get(5, TimeUnit.SECONDS));
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Verifies that a duplicate stops waiting for a hung original after the in-flight timeout.
+     */
+    @Test
+    void testExecuteBoundsWaitForInFlightRequest() throws Exception {
+        final IdempotencyService service = new IdempotencyService(store, Duration.ofMillis(100));
+        final CustomerDTO customerDTO = customer("test@example.com");
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            executor.submit(() -> service.execute("key-1", customerDTO, () -> {
+                started.countDown();
+                await(release);
+                return UUID.randomUUID();
+            }));
+            started.await(5, TimeUnit.SECONDS);
+
+            assertThrows(IdempotentRequestInProgressException.class,
+                    () -> service.execute("key-1", customerDTO, UUID::randomUUID));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static CustomerDTO customer(String email) {
+        final CustomerDTO customerDTO = new CustomerDTO();
+
+        customerDTO.setFirstName("Luke");
+        customerDTO.setLastName("Skywalker");
+        customerDTO.setEmail(email);
+
+        return customerDTO;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.rent.customer.writebehind;
+
+import com.rent.customer.exception.WriteAheadLogFullException;
+import com.rent.customer.model.Customer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link WriteAheadLog} class.
+ * These tests verify recovery after a restart, checkpointing, space reuse and the full-log timeout.
+ */
+class WriteAheadLogTest {
+
+    private static final int CAPACITY = 4096;
+    private static final long TIMEOUT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Verifies that records appended before a restart are recovered in order.
+     */
+    @Test
+    void testRecoversUnflushedRecords() throws Exception {
+        final Path path = directory.resolve("customer.wal");
+
+        try (WriteAheadLog log = WriteAheadLog.open(path, CAPACITY, TIMEOUT)) {
+            log.append(new byte[]{1, 2, 3});
+            log.append(new byte[]{4});
+        }
+
+        try (WriteAheadLog log = WriteAheadLog.open(path, CAPACITY, TIMEOUT)) {
+            final List<WriteAheadLog.Record> recovered = log.getRecovered();
+
+            assertEquals(2, recovered.size());
+            assertArrayEquals(new byte[]{1, 2, 3}, recovered.get(0).getPayload());
+            assertArrayEquals(new byte[]{4}, recovered.get(1).getPayload());
+        }
+    }
+
+    /**
+     * Verifies that flushed records are not recovered, and that records appended after a rewind are.
+     */
+    @Test
+    void testSkipsFlushedRecords() throws Exception {
+        final Path path = directory.resolve("customer.wal");
+
+        try (WriteAheadLog log = WriteAheadLog.open(path, CAPACITY, TIMEOUT)) {
+            final long first = log.append(new byte[]{1});
+            log.append(new byte[]{2});
+
+            log.markFlushed(Collections.singletonList(first));
+        }
+
+        try (WriteAheadLog log = WriteAheadLog.open(path, CAPACITY, TIMEOUT)) {
+            assertEquals(1, log.getRecovered().size());
+            assertArrayEquals(new byte[]{2}, log.getRecovered().get(0).getPayload());
+
+            log.markFlushed(Collections.singletonList(log.getRecovered().get(0).getSequence()));
+            assertEquals(0, log.getUsedBytes());
+
+            log.append(new byte[]{3});
+        }
+
+        try (WriteAheadLog log = WriteAheadLog.open(path, CAPACITY, TIMEOUT)) {
+            assertEquals(1, log.getRecovered().size());
+            assertArrayEquals(new byte[]{3}, log.getRecovered().get(0).getPayload());
+        }
+    }
+
+    /**
+     * Verifies that an append fails once the log stays full for longer than the timeout, and succeeds again
+     * after a flush frees space.
+     */
+    @Test
+    void testAppendTimesOutWhenFull() throws Exception {
+        try (WriteAheadLog log = WriteAheadLog.open(directory.resolve("customer.wal"), CAPACITY, TIMEOUT)) {
+            final long sequence = log.append(new byte[CAPACITY / 2]);
+
+            assertThrows(WriteAheadLogFullException.class, () -> log.append(new byte[CAPACITY / 2]));
+
+            log.markFlushed(Collections.singletonList(sequence));
+            log.append(new byte[CAPACITY / 2]);
+            assertTrue(log.getUsedBytes() > CAPACITY / 2);
+        }
+    }
+
+    /**
+     * Verifies that the space of flushed records is reused while older records are still unflushed, so that a
+     * backlog that never drains does not fill the log, and that the backlog is recovered after wrapping around.
+     */
+    @Test
+    void testReusesSpaceWhileBacklogNeverDrains() throws Exception {
+        final Path path = directory.resolve("customer.wal");
+        final Map<Long, byte[]> backlog = new LinkedHashMap<>();
+        WriteAheadLog log = WriteAheadLog.open(path, CAPACITY, TIMEOUT);
+
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                final byte[] payload = new byte[50 + i % 100];
+
+                ByteBuffer.wrap(payload).putInt(i);
+                backlog.put(log.append(payload), payload);
+
+                if (backlog.size() > 10) {
+                    final Long oldest = backlog.keySet().iterator().next();
+
+                    backlog.remove(oldest);
+                    log.markFlushed(Collections.singletonList(oldest));
+                }
+
+                if (i % 97 == 0) {
+                    log.close();
+                    log = WriteAheadLog.open(path, CAPACITY, TIMEOUT);
+
+                    final List<WriteAheadLog.Record> recovered = log.getRecovered();
+
+                    assertEquals(new ArrayList<>(backlog.keySet()),
+                            recovered.stream().map(WriteAheadLog.Record::getSequence).toList());
+
+                    for (WriteAheadLog.Record record : recovered) {
+                        assertArrayEquals(backlog.get(record.getSequence()), record.getPayload());
+                    }
+                }
+            }
+
+            assertTrue(log.getUsedBytes() < CAPACITY / 2);
+        } finally {
+            log.close();
+        }
+    }
+
+    /**
+     * Verifies that a customer survives the round trip through the record codec.
+     */
+    @Test
+    void testCustomerRecordCodec() {
+        final Customer customer = new Customer();
+
+        customer.setId(UUID.randomUUID());
+        customer.setFirstName("João");
+        customer.setLastName(null);
+        customer.setEmail("joao@example.com");
+
+        final Customer decoded = CustomerRecordCodec.decode(CustomerRecordCodec.encode(customer));
+
+        assertEquals(customer.getId(), decoded.getId());
+        assertEquals("João", decoded.getFirstName());
+        assertEquals(null, decoded.getLastName());
+        assertEquals("joao@example.com", decoded.getEmail());
+    }
+}
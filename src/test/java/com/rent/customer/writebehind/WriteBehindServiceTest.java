@@ -0,0 +1,361 @@
+package com.rent.customer.writebehind;
+
+import com.rent.customer.model.Customer;
+import com.rent.customer.repository.CustomerBulkRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the {@link WriteBehindService} class.
+ * These tests verify that the flusher empties the write-ahead log once the backlog is committed, keeps it while the
+ * database is unavailable, drops only the customers the database rejects, and commits independently of its caller.
+ * They also cover purged customers, the replay of a log left behind once write-behind is disabled, and the size limit
+ * of the log.
+ */
+class WriteBehindServiceTest {
+
+    @Mock
+    private CustomerBulkRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path directory;
+
+    private final WriteBehindProperties properties = new WriteBehindProperties();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private WriteBehindService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        properties.setEnabled(true);
+        properties.setWalPath(directory.resolve("customer.wal").toString());
+        properties.setWalSize(DataSize.ofKilobytes(64));
+
+        service = open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        service.close();
+    }
+
+    /**
+     * Verifies that the constructor rejects missing collaborators, even while write-behind is disabled.
+     */
+    @Test
+    void testConstructorRejectsMissingCollaborators() {
+        assertThrows(NullPointerException.class,
+                () -> new WriteBehindService(new WriteBehindProperties(), null, transactionManager, meterRegistry));
+        assertThrows(NullPointerException.class,
+                () -> new WriteBehindService(new WriteBehindProperties(), repository, null, meterRegistry));
+    }
+
+    /**
+     * Verifies that a flush inserts the backlog as one batch, releases the customers and their e-mails, and leaves
+     * nothing to recover after a restart.
+     */
+    @Test
+    void testFlushInsertsBacklog() throws Exception {
+        final Customer first = customer("first@example.com");
+        final Customer second = customer("second@example.com");
+
+        service.create(first);
+        service.create(second);
+        service.flush();
+
+        verify(repository).insertIgnoringExisting(argThat(customers ->
+                customers.size() == 2 && customers.containsAll(Arrays.asList(first, second))));
+        assertTrue(service.findAll().isEmpty());
+        assertFalse(service.isEmailPending(first.getEmail()));
+
+        restart();
+        assertTrue(service.findAll().isEmpty());
+    }
+
+    /**
+     * Verifies that the backlog is kept, and recovered after a restart, while the database is unavailable.
+     */
+    @Test
+    void testFlushKeepsBacklogWhileDatabaseUnavailable() throws Exception {
+        final Customer customer = customer("first@example.com");
+
+        doThrow(new QueryTimeoutException("Database unavailable")).when(repository).insertIgnoringExisting(anyList());
+
+        service.create(customer);
+        service.flush();
+
+        assertTrue(service.find(customer.getId()).isPresent());
+        assertTrue(service.isEmailPending(customer.getEmail()));
+
+        restart();
+        assertTrue(service.find(customer.getId()).isPresent());
+
+        reset(repository);
+        service.flush();
+        assertTrue(service.findAll().isEmpty());
+    }
+
+    /**
+     * Verifies that a customer rejected by the database is dropped and counted, and that the other customers of its
+     * batch are still inserted.
+     */
+    @Test
+    void testFlushDropsCustomerRejectedByDatabase() throws Exception {
+        final Customer rejected = customer("taken@example.com");
+        final Customer accepted = customer("free@example.com");
+
+        doThrow(new DataIntegrityViolationException("E-mail already registered"))
+                .when(repository).insertIgnoringExisting(argThat(customers -> customers.contains(rejected)));
+
+        service.create(rejected);
+        service.create(accepted);
+        service.flush();
+
+        verify(repository).insertIgnoringExisting(Collections.singletonList(accepted));
+        assertTrue(service.findAll().isEmpty());
+        assertFalse(service.isEmailPending(rejected.getEmail()));
+        assertEquals(1, meterRegistry.counter("customer.write-behind.rejected").count());
+
+        restart();
+        assertTrue(service.findAll().isEmpty());
+    }
+
+    /**
+     * Verifies that flushing a pending customer before it is updated or deleted inserts that customer only, and
+     * leaves the rest of the backlog to the flusher.
+     */
+    @Test
+    void testFlushIfPendingFlushesOnlyThatCustomer() {
+        final Customer updated = customer("updated@example.com");
+        final Customer other = customer("other@example.com");
+
+        service.create(updated);
+        service.create(other);
+        service.flushIfPending(updated.getId());
+
+        verify(repository).insertIgnoringExisting(Collections.singletonList(updated));
+        assertFalse(service.find(updated.getId()).isPresent());
+        assertTrue(service.find(other.getId()).isPresent());
+    }
+
+    /**
+     * Verifies that a customer flushed from within a transaction that then rolls back, as an update failing
+     * validation does, is committed on its own and not lost.
+     */
+    @Test
+    void testFlushIfPendingSurvivesCallerRollback() throws Exception {
+        final RecordingTransactionManager recordingManager = new RecordingTransactionManager();
+        final Customer customer = customer("first@example.com");
+
+        doAnswer(invocation -> {
+            recordingManager.insert(invocation.getArgument(0));
+            return null;
+        }).when(repository).insertIgnoringExisting(anyList());
+
+        service.close();
+        service = new WriteBehindService(properties, repository, recordingManager, meterRegistry);
+        service.open();
+        service.create(customer);
+
+        assertThrows(IllegalStateException.class, () ->
+                new TransactionTemplate(recordingManager).executeWithoutResult(status -> {
+                    service.flushIfPending(customer.getId());
+                    throw new IllegalStateException("Update rejected");
+                }));
+
+        assertEquals(Collections.singletonList(customer), recordingManager.committed);
+        assertFalse(service.find(customer.getId()).isPresent());
+    }
+
+    /**
+     * Verifies that a discarded customer is neither flushed nor recovered after a restart, and releases its e-mail.
+     */
+    @Test
+    void testDiscardDropsPendingCustomer() throws Exception {
+        final Customer purged = customer("purged@example.com");
+        final Customer kept = customer("kept@example.org");
+
+        service.create(purged);
+        service.create(kept);
+
+        assertEquals(Collections.singletonList(purged.getId()), service.discardByEmailDomain("example.com"));
+        assertTrue(service.discard(Collections.singletonList(purged.getId())).isEmpty());
+        assertFalse(service.isEmailPending(purged.getEmail()));
+
+        restart();
+        assertEquals(Collections.singletonList(kept), service.findAll());
+
+        service.flush();
+        verify(repository).insertIgnoringExisting(Collections.singletonList(kept));
+    }
+
+    /**
+     * Verifies that customers left in the log are still recovered and flushed after write-behind is disabled.
+     */
+    @Test
+    void testReplaysLogWhileDisabled() throws Exception {
+        final Customer customer = customer("first@example.com");
+
+        service.create(customer);
+        properties.setEnabled(false);
+        restart();
+
+        assertFalse(service.isEnabled());
+        assertTrue(service.find(customer.getId()).isPresent());
+
+        service.flush();
+        verify(repository).insertIgnoringExisting(Collections.singletonList(customer));
+        assertTrue(service.findAll().isEmpty());
+    }
+
+    /**
+     * Verifies that a log too large to be mapped is rejected on startup instead of being truncated.
+     */
+    @Test
+    void testRejectsUnmappableWalSize() {
+        final WriteBehindProperties oversized = new WriteBehindProperties();
+
+        oversized.setEnabled(true);
+        oversized.setWalPath(directory.resolve("oversized.wal").toString());
+        oversized.setWalSize(DataSize.ofGigabytes(2));
+
+        assertThrows(IllegalStateException.class,
+                () -> new WriteBehindService(oversized, repository, transactionManager, meterRegistry).open());
+    }
+
+    private WriteBehindService open() {
+        final WriteBehindService writeBehindService = new WriteBehindService(properties, repository,
+                transactionManager, meterRegistry);
+
+        writeBehindService.open();
+        return writeBehindService;
+    }
+
+    // Closes the log without flushing it, as a crash would, and opens it again
+    private void restart() throws Exception {
+        reset(repository);
+        doThrow(new QueryTimeoutException("Database unavailable")).when(repository).insertIgnoringExisting(anyList());
+        service.close();
+
+        reset(repository);
+        service = open();
+    }
+
+    private static Customer customer(String email) {
+        final Customer customer = new Customer();
+
+        customer.setId(UUID.randomUUID());
+        customer.setFirstName("John");
+        customer.setLastName("Doe");
+        customer.setEmail(email);
+        return customer;
+    }
+
+    // Keeps what is inserted within a transaction, and publishes it only if that transaction commits
+    private static final class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+
+        private final ThreadLocal<List<Customer>> current = new ThreadLocal<>();
+        private final List<Customer> committed = new ArrayList<>();
+
+        void insert(List<Customer> customers) {
+            current.get().addAll(customers);
+        }
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Transaction(current.get());
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return ((Transaction) transaction).inserted != null;
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            ((Transaction) transaction).inserted = new ArrayList<>();
+            current.set(((Transaction) transaction).inserted);
+        }
+
+        @Override
+        protected Object doSuspend(Object transaction) {
+            final List<Customer> suspended = current.get();
+
+            ((Transaction) transaction).inserted = null;
+            current.remove();
+            return suspended;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void doResume(Object transaction, Object suspendedResources) {
+            current.set((List<Customer>) suspendedResources);
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            committed.addAll(((Transaction) status.getTransaction()).inserted);
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            current.remove();
+        }
+
+        private static final class Transaction {
+            private List<Customer> inserted;
+
+            private Transaction(List<Customer> inserted) {
+                this.inserted = inserted;
+            }
+        }
+    }
+}